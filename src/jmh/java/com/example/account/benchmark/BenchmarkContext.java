@@ -0,0 +1,50 @@
+package com.example.account.benchmark;
+
+import com.example.account.AccountApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+// 벤치마크마다 웹 서버 없이 애플리케이션 컨텍스트를 띄운다(H2 + embedded Redis).
+// 실행 중인 로컬 서버와 충돌하지 않도록 Redis 포트와 DB 이름을 따로 쓴다.
+final class BenchmarkContext {
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String... properties) {
+        List<String> args = new ArrayList<>(Arrays.asList(
+                "--spring.redis.port=" + freePort(),
+                "--spring.jpa.properties.hibernate.show_sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--logging.level.root=WARN"
+        ));
+        // 같은 키를 두 번 넘기면 값이 합쳐지므로, DB 를 따로 지정하면 기본 in-memory DB 를 넣지 않는다.
+        if (Arrays.stream(properties).noneMatch(property -> property.startsWith("spring.datasource.url="))) {
+            args.add("--spring.datasource.url=jdbc:h2:mem:jmh-" + UUID.randomUUID());
+        }
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+
+        return new SpringApplicationBuilder(AccountApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run(args.toArray(new String[0]));
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.account.benchmark;
+
+import com.example.account.controller.TransactionCommandController;
+import com.example.account.dto.UseBalance;
+import com.example.account.exception.AccountException;
+import com.example.account.service.AccountService;
+import com.example.account.type.ErrorCode;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+// 여러 스레드가 한 계좌에서 동시에 잔액을 사용할 때 lock 모드별 처리량과 지연.
+// 컨트롤러 빈을 직접 호출하므로 HTTP 를 제외한 lock(AOP), 서비스, DB 커밋이 모두 포함된다.
+// lock 획득 실패는 예외 대신 보조 카운터(lockFailures)로 센다.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Threads(8)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ContendedUseBalanceBenchmark {
+    // data.sql 로 들어가는 사용자
+    private static final long USER_ID = 1L;
+    private static final long AMOUNT = 10L;
+
+    @Param({"REDIS", "LOCAL_THEN_REDIS", "OPTIMISTIC"})
+    private String lockMode;
+
+    private ConfigurableApplicationContext context;
+    private TransactionCommandController transactionCommandController;
+    private String accountNumber;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("account.lock.mode=" + lockMode);
+        transactionCommandController = context.getBean(TransactionCommandController.class);
+        accountNumber = context.getBean(AccountService.class)
+                .createAccount(USER_ID, Long.MAX_VALUE / 2)
+                .getAccountNumber();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UseBalance.Response useBalance(Outcome outcome) {
+        try {
+            UseBalance.Response response = transactionCommandController.useBalance(
+                    new UseBalance.Request(USER_ID, accountNumber, AMOUNT));
+            outcome.succeeded++;
+            return response;
+        } catch (AccountException e) {
+            if (e.getErrorCode() == ErrorCode.ACCOUNT_TRANSACTION_LOCK) {
+                outcome.lockFailures++;
+            } else {
+                outcome.otherFailures++;
+            }
+            return null;
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcome {
+        public long succeeded;
+        public long lockFailures;
+        public long otherFailures;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            succeeded = 0;
+            lockFailures = 0;
+            otherFailures = 0;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.account.benchmark;
+
+import com.example.account.controller.ActorTransactionCommandController;
+import com.example.account.controller.AsyncTransactionCommandController;
+import com.example.account.controller.TransactionCommandController;
+import com.example.account.dto.UseBalance;
+import com.example.account.exception.AccountException;
+import com.example.account.service.AccountService;
+import com.example.account.type.ErrorCode;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// 실행 모드(SYNC: 요청 스레드, ASYNC: 계좌별 대기열 + 단건 처리, ACTOR: 계좌별 mailbox + 묶음 처리)별 처리량과 지연.
+// accounts=1 은 한 계좌에 요청이 몰리는 경우이고, ACTOR 의 묶음 크기가 가장 커진다.
+// 컨트롤러 빈을 직접 호출하고 비동기 응답은 완료될 때까지 기다린다.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Threads(32)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ExecutionModeBenchmark {
+    // data.sql 로 들어가는 사용자
+    private static final long USER_ID = 1L;
+    private static final long AMOUNT = 10L;
+
+    @Param({"SYNC", "ASYNC", "ACTOR"})
+    private String executionMode;
+
+    @Param({"1", "8"})
+    private int accounts;
+
+    private ConfigurableApplicationContext context;
+    private TransactionCommandController syncController;
+    private AsyncTransactionCommandController asyncController;
+    private ActorTransactionCommandController actorController;
+    private String[] accountNumbers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("account.execution.mode=" + executionMode);
+        switch (executionMode) {
+            case "SYNC":
+                syncController = context.getBean(TransactionCommandController.class);
+                break;
+            case "ASYNC":
+                asyncController = context.getBean(AsyncTransactionCommandController.class);
+                break;
+            case "ACTOR":
+                actorController = context.getBean(ActorTransactionCommandController.class);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown execution mode " + executionMode);
+        }
+
+        AccountService accountService = context.getBean(AccountService.class);
+        accountNumbers = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            accountNumbers[i] = accountService.createAccount(USER_ID, Long.MAX_VALUE / 2).getAccountNumber();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UseBalance.Response useBalance(Outcome outcome) {
+        UseBalance.Request request = new UseBalance.Request(USER_ID,
+                accountNumbers[ThreadLocalRandom.current().nextInt(accountNumbers.length)], AMOUNT);
+        try {
+            UseBalance.Response response = execute(request);
+            outcome.succeeded++;
+            return response;
+        } catch (AccountException e) {
+            if (e.getErrorCode() == ErrorCode.ACCOUNT_TRANSACTION_LOCK) {
+                outcome.lockFailures++;
+            } else {
+                outcome.otherFailures++;
+            }
+            return null;
+        }
+    }
+
+    private UseBalance.Response execute(UseBalance.Request request) {
+        try {
+            switch (executionMode) {
+                case "ASYNC":
+                    return asyncController.useBalance(request).join();
+                case "ACTOR":
+                    return actorController.useBalance(request).join();
+                default:
+                    return syncController.useBalance(request);
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof AccountException) {
+                throw (AccountException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcome {
+        public long succeeded;
+        public long lockFailures;
+        public long otherFailures;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            succeeded = 0;
+            lockFailures = 0;
+            otherFailures = 0;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.account.benchmark;
+
+import com.example.account.dto.HistoricalBalance;
+import com.example.account.dto.TransactionHistory;
+import com.example.account.service.AccountService;
+import com.example.account.service.AccountSnapshotCache;
+import com.example.account.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// 한 계좌의 거래 건수가 늘어나도 시점 잔액 조회와 keyset 페이지 조회 시간이 일정한지 확인한다.
+// 더 큰 이력은 -Pjmh.rows=50000000 처럼 rows 파라미터로 지정한다.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class HistoryQueryBenchmark {
+    private static final long USER_ID = 1L;
+    private static final long FIRST_ID = 1_000_000_000L;
+    private static final int INSERT_BATCH = 10_000;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"10000", "1000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private String accountNumber;
+    private LocalDateTime firstTransactedAt;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        transactionService = context.getBean(TransactionService.class);
+        accountNumber = context.getBean(AccountService.class)
+                .createAccount(USER_ID, 0L)
+                .getAccountNumber();
+        Long accountId = context.getBean(AccountSnapshotCache.class)
+                .findByAccountNumber(accountNumber).get().getId();
+
+        firstTransactedAt = LocalDateTime.now().minusSeconds(rows);
+        insertHistory(context.getBean(JdbcTemplate.class), accountId);
+    }
+
+    // 1초 간격의 입금(CANCEL) 이력을 직접 넣는다. i 번째 거래 후 잔액은 i + 1.
+    private void insertHistory(JdbcTemplate jdbcTemplate, Long accountId) {
+        String sql = "insert into transaction (id, transaction_type, transaction_result_type, account_id, " +
+                "amount, balance_snapshot, transaction_id, transacted_at) values (?, 'CANCEL', 'S', ?, 1, ?, ?, ?)";
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        for (int i = 0; i < rows; i++) {
+            batch.add(new Object[]{FIRST_ID + i, accountId, i + 1L, "jmh" + i,
+                    Timestamp.valueOf(firstTransactedAt.plusSeconds(i))});
+            if (batch.size() == INSERT_BATCH) {
+                jdbcTemplate.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public HistoricalBalance balanceAt(ThreadState threadState) {
+        return transactionService.getBalanceAt(accountNumber,
+                firstTransactedAt.plusSeconds(threadState.random.nextInt(rows)));
+    }
+
+    @Benchmark
+    public TransactionHistory historyFirstPage() {
+        return transactionService.getTransactionHistory(accountNumber, null, PAGE_SIZE, null, null);
+    }
+
+    @Benchmark
+    public TransactionHistory historyDeepPage(ThreadState threadState) {
+        // 서비스의 커서 형식(transactedAt|id 의 base64url)을 그대로 만든다.
+        int offset = threadState.random.nextInt(rows);
+        String raw = firstTransactedAt.plusSeconds(offset) + "|" + (FIRST_ID + offset);
+        String cursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+
+        return transactionService.getTransactionHistory(accountNumber, cursor, PAGE_SIZE, null, null);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private final SplittableRandom random = new SplittableRandom(42);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.account.benchmark;
+
+import com.example.account.service.LockService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// lock 모드별 lock/unlock 왕복 비용. HOT 은 모든 스레드가 한 계좌를, SPREAD 는 스레드마다 다른 계좌를 쓴다.
+// OPTIMISTIC 은 lock 을 잡지 않으므로 여기서 재지 않고 ContendedUseBalanceBenchmark 에서 끝까지 비교한다.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LockServiceBenchmark {
+    private static final String HOT_ACCOUNT_NUMBER = "1000000000";
+
+    @Param({"REDIS", "LOCAL_THEN_REDIS"})
+    private String lockMode;
+
+    @Param({"HOT", "SPREAD"})
+    private String contention;
+
+    private final AtomicLong nextAccountNumber = new AtomicLong(2000000000L);
+
+    private ConfigurableApplicationContext context;
+    private LockService lockService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("account.lock.mode=" + lockMode);
+        lockService = context.getBean(LockService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void lockUnlock(ThreadState threadState) {
+        lockService.lock(threadState.accountNumber);
+        lockService.unlock(threadState.accountNumber);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private String accountNumber;
+
+        @Setup(Level.Trial)
+        public void setUp(LockServiceBenchmark benchmark) {
+            accountNumber = "HOT".equals(benchmark.contention)
+                    ? HOT_ACCOUNT_NUMBER
+                    : Long.toString(benchmark.nextAccountNumber.getAndIncrement());
+        }
+    }
+}
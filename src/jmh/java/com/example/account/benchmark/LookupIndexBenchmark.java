@@ -0,0 +1,114 @@
+package com.example.account.benchmark;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.Transaction;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.TransactionRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// 거래가 rows 건 쌓였을 때 요청마다 실행되는 계좌번호/거래 ID 조회 시간.
+// indexed=false 는 uk_account_account_number, uk_transaction_transaction_id 를 지운 채(인덱스를 걸기 전) 측정한다.
+// 1천만 건은 힙에 들어가지 않으므로 파일 H2 에 넣는다. 작게 보려면 -Pjmh.rows=1000000 처럼 지정한다.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LookupIndexBenchmark {
+    private static final long USER_ID = 1L;
+    private static final long FIRST_ID = 1_000_000_000_000L;
+    private static final long FIRST_ACCOUNT_NUMBER = 2_000_000_000L;
+    private static final int TRANSACTIONS_PER_ACCOUNT = 100;
+    private static final int ROWS_PER_INSERT = 100_000;
+
+    @Param({"10000000"})
+    private int rows;
+
+    @Param({"true", "false"})
+    private boolean indexed;
+
+    private Path databaseDirectory;
+    private ConfigurableApplicationContext context;
+    private AccountRepository accountRepository;
+    private TransactionRepository transactionRepository;
+    private int accounts;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        databaseDirectory = Files.createTempDirectory("jmh-lookup");
+        context = BenchmarkContext.start("spring.datasource.url=jdbc:h2:file:"
+                + databaseDirectory.resolve("account").toAbsolutePath());
+        accountRepository = context.getBean(AccountRepository.class);
+        transactionRepository = context.getBean(TransactionRepository.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        if (!indexed) {
+            jdbcTemplate.execute("alter table account drop constraint uk_account_account_number");
+            jdbcTemplate.execute("alter table transaction drop constraint uk_transaction_transaction_id");
+        }
+        accounts = Math.max(1, rows / TRANSACTIONS_PER_ACCOUNT);
+        insertAccounts(jdbcTemplate);
+        insertTransactions(jdbcTemplate);
+    }
+
+    // 계좌번호는 발급기와 겹치지 않도록 2000000000 부터 쓴다.
+    private void insertAccounts(JdbcTemplate jdbcTemplate) {
+        for (long from = 0; from < accounts; from += ROWS_PER_INSERT) {
+            long to = Math.min(from + ROWS_PER_INSERT, accounts);
+            jdbcTemplate.update("insert into account(id, account_user_id, account_number, account_status, balance, " +
+                            "registered_at, created_at, updated_at, version) " +
+                            "select ? + x, ?, cast(? + x as varchar), 'IN_USE', 0, " +
+                            "localtimestamp, localtimestamp, localtimestamp, 0 " +
+                            "from system_range(?, ?)",
+                    FIRST_ID, USER_ID, FIRST_ACCOUNT_NUMBER, from, to - 1);
+        }
+    }
+
+    private void insertTransactions(JdbcTemplate jdbcTemplate) {
+        for (long from = 0; from < rows; from += ROWS_PER_INSERT) {
+            long to = Math.min(from + ROWS_PER_INSERT, rows);
+            jdbcTemplate.update("insert into transaction(id, transaction_type, transaction_result_type, account_id, " +
+                            "amount, balance_snapshot, transaction_id, transacted_at, created_at, updated_at) " +
+                            "select ? + x, 'USE', 'S', ? + mod(x, ?), 10, 0, concat('lookup-', x), " +
+                            "dateadd('SECOND', -x, localtimestamp), localtimestamp, localtimestamp " +
+                            "from system_range(?, ?)",
+                    FIRST_ID, FIRST_ID, accounts, from, to - 1);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        try (Stream<Path> paths = Files.walk(databaseDirectory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Optional<Account> findByAccountNumber(ThreadState threadState) {
+        return accountRepository.findByAccountNumber(
+                Long.toString(FIRST_ACCOUNT_NUMBER + threadState.random.nextInt(accounts)));
+    }
+
+    @Benchmark
+    public Optional<Transaction> findByTransactionId(ThreadState threadState) {
+        return transactionRepository.findByTransactionId("lookup-" + threadState.random.nextInt(rows));
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private final SplittableRandom random = new SplittableRandom(42);
+    }
+}
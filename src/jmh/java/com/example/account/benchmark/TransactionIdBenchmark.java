@@ -0,0 +1,41 @@
+package com.example.account.benchmark;
+
+import com.example.account.service.TimeOrderedTransactionIdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// 이전 방식(UUID 문자열에서 '-' 제거)과 시간순 ID 생성기의 비교.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TransactionIdBenchmark {
+    private final TimeOrderedTransactionIdGenerator timeOrderedGenerator =
+            new TimeOrderedTransactionIdGenerator(1);
+
+    @Benchmark
+    public String uuid() {
+        return UUID.randomUUID().toString().replace("-", "");
+    }
+
+    @Benchmark
+    public String timeOrdered() {
+        return timeOrderedGenerator.generate();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String uuidContended() {
+        return uuid();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String timeOrderedContended() {
+        return timeOrdered();
+    }
+}
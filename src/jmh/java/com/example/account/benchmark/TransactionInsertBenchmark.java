@@ -0,0 +1,71 @@
+package com.example.account.benchmark;
+
+import com.example.account.dto.TransactionDto;
+import com.example.account.service.AccountService;
+import com.example.account.service.TransactionService;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// 실패 거래를 묶어서 저장할 때(saveFailedTransactions)의 행당 insert 처리량.
+// batchSize=1, allocationSize=1 이 JDBC 배치와 pooled 시퀀스를 쓰기 전의 설정이고, 50/50 이 application.yml 기본값이다.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TransactionInsertBenchmark {
+    private static final long USER_ID = 1L;
+    private static final int ROWS_PER_CALL = 100;
+
+    @Param({"1", "50"})
+    private int batchSize;
+
+    @Param({"1", "50"})
+    private int allocationSize;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private List<TransactionDto> failedTransactions;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                "spring.jpa.properties.account.id.allocation_size=" + allocationSize);
+        transactionService = context.getBean(TransactionService.class);
+        String accountNumber = context.getBean(AccountService.class)
+                .createAccount(USER_ID, 0L)
+                .getAccountNumber();
+
+        failedTransactions = new ArrayList<>(ROWS_PER_CALL);
+        for (int i = 0; i < ROWS_PER_CALL; i++) {
+            failedTransactions.add(TransactionDto.builder()
+                    .accountNumber(accountNumber)
+                    .transactionType(TransactionType.USE)
+                    .transactionResultType(TransactionResultType.F)
+                    .amount(10L)
+                    .balanceSnapshot(0L)
+                    .transactedAt(LocalDateTime.now())
+                    .build());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS_PER_CALL)
+    public void saveFailedTransactions() {
+        transactionService.saveFailedTransactions(failedTransactions);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.account.benchmark;
+
+import com.example.account.dto.TransactionDto;
+import com.example.account.dto.UseBalance;
+import com.example.account.service.AccountService;
+import com.example.account.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// 잔액 사용/취소 한 건이 H2 에 커밋되기까지의 비용. 계좌 lock(AOP)은 컨트롤러에 걸려 있으므로 포함되지 않는다.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TransactionServiceBenchmark {
+    // data.sql 로 들어가는 사용자
+    private static final long USER_ID = 1L;
+    private static final long AMOUNT = 10L;
+    private static final int BATCH_SIZE = 10;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private String accountNumber;
+    private List<UseBalance.Request> batchRequests;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        transactionService = context.getBean(TransactionService.class);
+        accountNumber = context.getBean(AccountService.class)
+                .createAccount(USER_ID, Long.MAX_VALUE / 2)
+                .getAccountNumber();
+        batchRequests = Collections.nCopies(BATCH_SIZE, new UseBalance.Request(USER_ID, accountNumber, AMOUNT));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransactionDto useBalance() {
+        return transactionService.useBalance(USER_ID, accountNumber, AMOUNT);
+    }
+
+    // 한 건당 비용으로 나눠 useBalance 와 바로 비교할 수 있게 한다.
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<TransactionDto> useBalanceInBatch() {
+        return transactionService.useBalanceInBatch(accountNumber, batchRequests);
+    }
+
+    @Benchmark
+    public TransactionDto cancelBalance(CancelState cancelState) {
+        return transactionService.cancelBalance(cancelState.transactionId, accountNumber, AMOUNT);
+    }
+
+    // 거래는 한 번만 취소할 수 있으므로 호출마다 취소할 거래를 새로 만든다(측정에서 제외).
+    @State(Scope.Thread)
+    public static class CancelState {
+        private String transactionId;
+
+        @Setup(Level.Invocation)
+        public void setUp(TransactionServiceBenchmark benchmark) {
+            transactionId = benchmark.useBalance().getTransactionId();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.account.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// 계좌 API 의 얇은 HTTP 클라이언트. 에러도 200 + ErrorResponse 로 오므로 본문의 errorCode 로 판단한다.
+class AccountClient {
+    static final String LOCK_FAILURE = "ACCOUNT_TRANSACTION_LOCK";
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+
+    AccountClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    String createAccount(long userId, long initialBalance) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("userId", userId);
+        body.put("initialBalance", initialBalance);
+
+        Response response = post("/account", body);
+        if (!response.isSuccess()) {
+            throw new IllegalStateException("Failed to create account for user " + userId + ": " + response.errorCode);
+        }
+        return response.body.get("accountNumber").asText();
+    }
+
+    Response useBalance(long userId, String accountNumber, long amount) {
+        return post("/transaction/use", useBalanceBody(userId, accountNumber, amount));
+    }
+
+    static Map<String, Object> useBalanceBody(long userId, String accountNumber, long amount) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("userId", userId);
+        body.put("accountNumber", accountNumber);
+        body.put("amount", amount);
+        return body;
+    }
+
+    // items 는 useBalance 와 같은 userId/accountNumber/amount 맵이다.
+    Response useBalanceBatch(List<Map<String, Object>> items) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("requests", items);
+
+        return post("/transaction/use/batch", body);
+    }
+
+    Response cancelBalance(String transactionId, String accountNumber, long amount) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("transactionId", transactionId);
+        body.put("accountNumber", accountNumber);
+        body.put("amount", amount);
+
+        return post("/transaction/cancel", body);
+    }
+
+    Response getAccounts(long userId) {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/account?user_id=" + userId))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build());
+    }
+
+    // 응답 본문을 모으지 않고 읽으면서 줄 수만 센다. 성공하면 body 의 rows 에 헤더를 뺀 행 수를 담는다.
+    Response exportLedger(String accountNumber, LocalDate from, LocalDate to) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/account/" + accountNumber
+                        + "/transactions/export?format=CSV&from=" + from + "&to=" + to))
+                .timeout(Duration.ofMinutes(30))
+                .GET()
+                .build();
+        try {
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream body = new BufferedInputStream(response.body())) {
+                if (response.statusCode() / 100 != 2) {
+                    return Response.failure("HTTP_" + response.statusCode());
+                }
+                // 계좌가 없는 등의 에러는 CSV 대신 ErrorResponse(JSON) 로 온다.
+                if (response.headers().firstValue("Content-Type").orElse("").startsWith("application/json")) {
+                    JsonNode errorCode = objectMapper.readTree(body).get("errorCode");
+                    return Response.failure(errorCode == null ? "UNKNOWN" : errorCode.asText());
+                }
+
+                long lines = 0;
+                int b;
+                while ((b = body.read()) != -1) {
+                    if (b == '\n') {
+                        lines++;
+                    }
+                }
+                return new Response(objectMapper.createObjectNode().put("rows", Math.max(0, lines - 1)), null);
+            }
+        } catch (IOException e) {
+            return Response.failure("IO_ERROR");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Response.failure("INTERRUPTED");
+        }
+    }
+
+    private Response post(String path, Object body) {
+        try {
+            return send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                    .build());
+        } catch (IOException e) {
+            return Response.failure("CLIENT_ERROR");
+        }
+    }
+
+    private Response send(HttpRequest request) {
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() / 100 != 2) {
+                return Response.failure("HTTP_" + response.statusCode());
+            }
+
+            JsonNode body = objectMapper.readTree(response.body());
+            JsonNode errorCode = body.get("errorCode");
+            if (errorCode != null && !errorCode.isNull()) {
+                return Response.failure(errorCode.asText());
+            }
+            return new Response(body, null);
+        } catch (IOException e) {
+            return Response.failure("IO_ERROR");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Response.failure("INTERRUPTED");
+        }
+    }
+
+    static class Response {
+        final JsonNode body;
+        final String errorCode;
+
+        private Response(JsonNode body, String errorCode) {
+            this.body = body;
+            this.errorCode = errorCode;
+        }
+
+        static Response failure(String errorCode) {
+            return new Response(null, errorCode);
+        }
+
+        boolean isSuccess() {
+            return errorCode == null;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.account.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// -Dloadtest.xxx 시스템 프로퍼티로 설정한다(gradle loadTest -Ploadtest.xxx=... 로 전달됨).
+class LoadTestConfig {
+    final String baseUrl;
+    final List<Scenario> scenarios;
+    final int concurrency;
+    final double ratePerSecond;
+    final int durationSeconds;
+    final int warmupSeconds;
+    final int accounts;
+    final double zipfExponent;
+    final long amount;
+    final int batchSize;
+    final long exportRows;
+
+    private LoadTestConfig() {
+        baseUrl = System.getProperty("loadtest.base-url");
+        scenarios = parseScenarios(System.getProperty("loadtest.scenarios", "use,cancel,account"));
+        concurrency = Integer.getInteger("loadtest.concurrency", 32);
+        ratePerSecond = Double.parseDouble(System.getProperty("loadtest.rate", "0"));
+        durationSeconds = Integer.getInteger("loadtest.duration-seconds", 30);
+        warmupSeconds = Integer.getInteger("loadtest.warmup-seconds", 5);
+        accounts = Integer.getInteger("loadtest.accounts", 1000);
+        zipfExponent = Double.parseDouble(System.getProperty("loadtest.zipf-exponent", "1.0"));
+        amount = Long.getLong("loadtest.amount", 10L);
+        batchSize = Integer.getInteger("loadtest.batch-size", 10);
+        exportRows = Long.getLong("loadtest.export-rows", 5_000_000L);
+    }
+
+    static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig();
+    }
+
+    boolean embedded() {
+        return baseUrl == null || baseUrl.isEmpty();
+    }
+
+    // 0 이하면 각 가상 사용자가 응답을 받자마자 다음 요청을 보낸다.
+    long intervalNanosPerWorker() {
+        return ratePerSecond <= 0 ? 0 : (long) (1_000_000_000L * concurrency / ratePerSecond);
+    }
+
+    private static List<Scenario> parseScenarios(String value) {
+        List<Scenario> scenarios = new ArrayList<>();
+        for (String name : value.split(",")) {
+            if (!name.trim().isEmpty()) {
+                scenarios.add(Scenario.valueOf(name.trim().toUpperCase()));
+            }
+        }
+        return scenarios;
+    }
+
+    @Override
+    public String toString() {
+        return "target=" + (embedded() ? "embedded" : baseUrl)
+                + ", scenarios=" + scenarios
+                + ", concurrency=" + concurrency
+                + ", rate=" + (ratePerSecond <= 0 ? "unbounded" : ratePerSecond + "/s")
+                + ", duration=" + durationSeconds + "s (warmup " + warmupSeconds + "s)"
+                + ", accounts=" + accounts
+                + ", zipf=" + zipfExponent
+                + ", batchSize=" + batchSize
+                + (scenarios.contains(Scenario.EXPORT) ? ", exportRows=" + exportRows : "");
+    }
+}
@@ -0,0 +1,303 @@
+package com.example.account.loadtest;
+
+import com.example.account.AccountApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+// 닫힌 루프(closed-loop) 부하 생성기. 가상 사용자(concurrency) 마다 응답을 받은 뒤 다음 요청을 보내며,
+// rate 가 주어지면 가상 사용자별 간격에 맞춰 보내고 지연은 "보내려던 시각"부터 잰다(coordinated omission 보정).
+// 계좌는 Zipf 분포로 골라서 인기 계좌에 lock 경합이 몰리게 한다.
+public class LoadTestRunner {
+    private static final int MAX_ACCOUNTS_PER_USER = 10;
+    private static final long FIRST_LOAD_TEST_USER_ID = 1000L;
+    private static final long INITIAL_BALANCE = 1_000_000_000_000L;
+    // export 용 행은 시퀀스가 닿지 않는 id 범위에 넣는다.
+    private static final long FIRST_EXPORT_ROW_ID = 1_000_000_000_000L;
+    private static final int EXPORT_ROWS_PER_INSERT = 100_000;
+    private static final int EXPORT_DAYS = 365;
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        System.out.println("Load test: " + config);
+
+        // export 는 원장이 힙보다 커야 의미가 있으므로 내장 DB 를 메모리 대신 파일에 둔다.
+        Path databaseDirectory = config.embedded() && config.scenarios.contains(Scenario.EXPORT)
+                ? Files.createTempDirectory("loadtest-db")
+                : null;
+        ConfigurableApplicationContext context = config.embedded() ? startApplication(databaseDirectory) : null;
+        try {
+            String baseUrl = context == null
+                    ? config.baseUrl
+                    : "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            AccountClient client = new AccountClient(baseUrl);
+            List<TestAccount> accounts = prepareAccounts(config, client, context);
+            ZipfSampler sampler = new ZipfSampler(accounts.size(), config.zipfExponent);
+            if (context != null && config.scenarios.contains(Scenario.EXPORT)) {
+                prepareExportLedger(config, context, accounts.get(0));
+            }
+
+            for (Scenario scenario : config.scenarios) {
+                if (context != null) {
+                    resetPeakHeap();
+                }
+                run(scenario, config, client, accounts, sampler)
+                        .print(scenario, config.durationSeconds, System.out);
+                if (context != null) {
+                    // 서버와 클라이언트가 같은 JVM 이지만, 클라이언트는 응답을 모으지 않으므로 대부분 서버 사용량이다.
+                    System.out.printf("heap peak     %.1f MB (max %.1f MB)%n",
+                            peakHeapBytes() / 1048576.0, Runtime.getRuntime().maxMemory() / 1048576.0);
+                }
+            }
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+            if (databaseDirectory != null) {
+                deleteDirectory(databaseDirectory);
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(Path databaseDirectory) {
+        String databaseUrl = databaseDirectory == null
+                ? "jdbc:h2:mem:loadtest-" + UUID.randomUUID()
+                : "jdbc:h2:file:" + databaseDirectory.resolve("account").toAbsolutePath();
+        return new SpringApplicationBuilder(AccountApplication.class)
+                .logStartupInfo(false)
+                .run("--server.port=0",
+                        "--spring.redis.port=" + freePort(),
+                        "--spring.datasource.url=" + databaseUrl,
+                        "--spring.jpa.properties.hibernate.show_sql=false",
+                        "--spring.jpa.properties.hibernate.format_sql=false",
+                        "--logging.level.root=WARN");
+    }
+
+    // 첫 번째(가장 인기 있는) 계좌의 최근 EXPORT_DAYS 일에 export-rows 건의 거래를 DB 안에서 바로 만든다.
+    private static void prepareExportLedger(LoadTestConfig config, ConfigurableApplicationContext context,
+                                            TestAccount account) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Long accountId = jdbcTemplate.queryForObject(
+                "select id from account where account_number = ?", Long.class, account.accountNumber);
+        long secondsPerRow = Math.max(1, TimeUnit.DAYS.toSeconds(EXPORT_DAYS - 1) / Math.max(1, config.exportRows));
+        for (long from = 0; from < config.exportRows; from += EXPORT_ROWS_PER_INSERT) {
+            long to = Math.min(from + EXPORT_ROWS_PER_INSERT, config.exportRows);
+            jdbcTemplate.update("insert into transaction(id, transaction_type, transaction_result_type, account_id, " +
+                            "amount, balance_snapshot, transaction_id, transacted_at, created_at, updated_at) " +
+                            "select ? + x, 'USE', 'S', ?, 10, 0, concat('export-', x), " +
+                            "dateadd('SECOND', -x * ?, localtimestamp), localtimestamp, localtimestamp " +
+                            "from system_range(?, ?)",
+                    FIRST_EXPORT_ROW_ID, accountId, secondsPerRow, from, to - 1);
+        }
+        System.out.println("Prepared " + config.exportRows + " ledger rows for export");
+    }
+
+    private static void resetPeakHeap() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    // 힙 영역별 최대값의 합이라 실제 최대 사용량보다 조금 크게 나올 수 있다.
+    private static long peakHeapBytes() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private static List<TestAccount> prepareAccounts(LoadTestConfig config, AccountClient client,
+                                                     ConfigurableApplicationContext context) {
+        List<Long> userIds = new ArrayList<>();
+        int accountCount = config.accounts;
+        if (context != null) {
+            // 사용자당 계좌가 10개로 제한되므로 필요한 만큼 사용자를 직접 넣는다.
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            int users = (accountCount + MAX_ACCOUNTS_PER_USER - 1) / MAX_ACCOUNTS_PER_USER;
+            for (int i = 0; i < users; i++) {
+                long userId = FIRST_LOAD_TEST_USER_ID + i;
+                jdbcTemplate.update("insert into account_user(id, name, created_at, updated_at) " +
+                        "values (?, ?, now(), now())", userId, "loadtest-" + i);
+                userIds.add(userId);
+            }
+        } else {
+            // 외부 서버에는 data.sql 의 사용자(1~4)만 있다고 가정한다.
+            for (long userId = 1; userId <= 4; userId++) {
+                userIds.add(userId);
+            }
+            int max = userIds.size() * MAX_ACCOUNTS_PER_USER;
+            if (accountCount > max) {
+                System.out.println("Only " + max + " accounts can be created on an external server");
+                accountCount = max;
+            }
+        }
+
+        List<TestAccount> accounts = new ArrayList<>(accountCount);
+        for (int i = 0; i < accountCount; i++) {
+            long userId = userIds.get(i / MAX_ACCOUNTS_PER_USER);
+            accounts.add(new TestAccount(userId, client.createAccount(userId, INITIAL_BALANCE)));
+        }
+        System.out.println("Prepared " + accounts.size() + " accounts");
+
+        return accounts;
+    }
+
+    private static ScenarioResult run(Scenario scenario, LoadTestConfig config, AccountClient client,
+                                      List<TestAccount> accounts, ZipfSampler sampler) throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(config.concurrency);
+        long startAt = System.nanoTime();
+        long measureFrom = startAt + TimeUnit.SECONDS.toNanos(config.warmupSeconds);
+        long endAt = measureFrom + TimeUnit.SECONDS.toNanos(config.durationSeconds);
+        long interval = config.intervalNanosPerWorker();
+
+        List<Future<ScenarioResult>> futures = new ArrayList<>();
+        for (int worker = 0; worker < config.concurrency; worker++) {
+            // 가상 사용자들의 시작 시각을 간격 안에서 고르게 흩뜨린다.
+            long firstAt = startAt + (interval * worker) / config.concurrency;
+            futures.add(executorService.submit(() -> {
+                ScenarioResult result = new ScenarioResult();
+                long scheduledAt = firstAt;
+                while (true) {
+                    if (System.nanoTime() >= endAt) {
+                        break;
+                    }
+                    TestAccount account = accounts.get(sampler.next());
+
+                    // 취소할 거래는 측정 시작 전에 만든다. 만들지 못하면 이번 요청은 기록하지 않는다.
+                    String cancelTransactionId = null;
+                    long setupFinishedAt = 0;
+                    if (scenario == Scenario.CANCEL) {
+                        AccountClient.Response used = client.useBalance(
+                                account.userId, account.accountNumber, config.amount);
+                        if (!used.isSuccess()) {
+                            result.setupFailures++;
+                            scheduledAt += interval;
+                            continue;
+                        }
+                        cancelTransactionId = used.body.get("transactionId").asText();
+                        setupFinishedAt = System.nanoTime();
+                    }
+
+                    long now = System.nanoTime();
+                    if (interval > 0 && scheduledAt > now) {
+                        LockSupport.parkNanos(scheduledAt - now);
+                    }
+                    long requestStart = interval > 0 ? Math.max(scheduledAt, setupFinishedAt) : System.nanoTime();
+
+                    if (scenario == Scenario.EXPORT) {
+                        // 준비한 원장이 있는 계좌만 받는다. 한 건이 측정 구간보다 길 수 있으므로 구간과 상관없이 모두 기록한다.
+                        TestAccount exportAccount = accounts.get(0);
+                        LocalDate today = LocalDate.now();
+                        AccountClient.Response response = client.exportLedger(
+                                exportAccount.accountNumber, today.minusDays(EXPORT_DAYS), today);
+                        result.recordExport(System.nanoTime() - requestStart, response);
+                        scheduledAt += interval;
+                        continue;
+                    }
+
+                    if (scenario == Scenario.BATCH) {
+                        List<Map<String, Object>> items = batchItems(config, accounts, sampler, account);
+                        AccountClient.Response response = client.useBalanceBatch(items);
+                        long finishedAt = System.nanoTime();
+                        if (requestStart >= measureFrom && finishedAt <= endAt) {
+                            result.recordBatch(finishedAt - requestStart, response, items.size());
+                        }
+                        scheduledAt += interval;
+                        continue;
+                    }
+
+                    AccountClient.Response response = execute(scenario, config, client, account, cancelTransactionId);
+                    long finishedAt = System.nanoTime();
+                    if (requestStart >= measureFrom && finishedAt <= endAt) {
+                        result.record(finishedAt - requestStart, response);
+                    }
+                    scheduledAt += interval;
+                }
+                return result;
+            }));
+        }
+
+        ScenarioResult total = new ScenarioResult();
+        for (Future<ScenarioResult> future : futures) {
+            total.add(future.get());
+        }
+        executorService.shutdown();
+
+        return total;
+    }
+
+    // 묶음의 각 건도 단건 USE 와 같은 Zipf 분포로 계좌를 고른다.
+    private static List<Map<String, Object>> batchItems(LoadTestConfig config, List<TestAccount> accounts,
+                                                        ZipfSampler sampler, TestAccount first) {
+        List<Map<String, Object>> items = new ArrayList<>(config.batchSize);
+        items.add(AccountClient.useBalanceBody(first.userId, first.accountNumber, config.amount));
+        while (items.size() < config.batchSize) {
+            TestAccount account = accounts.get(sampler.next());
+            items.add(AccountClient.useBalanceBody(account.userId, account.accountNumber, config.amount));
+        }
+        return items;
+    }
+
+    private static AccountClient.Response execute(Scenario scenario, LoadTestConfig config,
+                                                  AccountClient client, TestAccount account,
+                                                  String cancelTransactionId) {
+        switch (scenario) {
+            case USE:
+                return client.useBalance(account.userId, account.accountNumber, config.amount);
+            case CANCEL:
+                return client.cancelBalance(cancelTransactionId, account.accountNumber, config.amount);
+            case ACCOUNT:
+                return client.getAccounts(account.userId);
+            default:
+                throw new IllegalArgumentException("Unknown scenario " + scenario);
+        }
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class TestAccount {
+        private final long userId;
+        private final String accountNumber;
+
+        private TestAccount(long userId, String accountNumber) {
+            this.userId = userId;
+            this.accountNumber = accountNumber;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.account.loadtest;
+
+enum Scenario {
+    // POST /transaction/use
+    USE,
+    // POST /transaction/use/batch, 한 요청에 loadtest.batch-size 건. USE 와 건(ops/s) 단위로 비교한다.
+    BATCH,
+    // POST /transaction/use 후 POST /transaction/cancel, 취소 요청만 측정한다.
+    CANCEL,
+    // GET /account?user_id=
+    ACCOUNT,
+    // GET /account/{accountNumber}/transactions/export, loadtest.export-rows 건의 원장을 받는다.
+    // 내장 실행이면 힙 최대 사용량도 출력하므로 -Ploadtest.max-heap 으로 힙을 제한해서 돌린다.
+    EXPORT
+}
@@ -0,0 +1,107 @@
+package com.example.account.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+// 가상 사용자 한 명(스레드)의 측정값. 끝나면 시나리오 단위로 합친다.
+class ScenarioResult {
+    // 대용량 export 한 건이 몇 분씩 걸릴 수 있다.
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(30);
+
+    final Histogram latencyMicros = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+    final Map<String, Long> errors = new TreeMap<>();
+    long requests;
+    // 처리한 건 수. BATCH 는 요청 하나에 여러 건이고, 나머지 시나리오는 requests 와 같다.
+    long operations;
+    long lockFailures;
+    // EXPORT 에서 받은 원장 행 수
+    long exportedRows;
+    // 측정 대상 요청 전에 필요한 준비 요청(취소할 거래 생성 등)이 실패해서 건너뛴 횟수
+    long setupFailures;
+
+    void record(long latencyNanos, AccountClient.Response response) {
+        recordLatency(latencyNanos);
+        operations++;
+        if (!response.isSuccess()) {
+            recordError(response.errorCode, 1);
+        }
+    }
+
+    void recordExport(long latencyNanos, AccountClient.Response response) {
+        record(latencyNanos, response);
+        if (response.isSuccess()) {
+            exportedRows += response.body.get("rows").asLong();
+        }
+    }
+
+    // 묶음 요청이 통째로 실패하면 모든 건을, 아니면 결과의 건별 errorCode 를 센다.
+    void recordBatch(long latencyNanos, AccountClient.Response response, int items) {
+        recordLatency(latencyNanos);
+        operations += items;
+        if (!response.isSuccess()) {
+            recordError(response.errorCode, items);
+            return;
+        }
+        for (JsonNode item : response.body.get("results")) {
+            JsonNode errorCode = item.get("errorCode");
+            if (errorCode != null && !errorCode.isNull()) {
+                recordError(errorCode.asText(), 1);
+            }
+        }
+    }
+
+    private void recordLatency(long latencyNanos) {
+        latencyMicros.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS));
+        requests++;
+    }
+
+    private void recordError(String errorCode, long count) {
+        errors.merge(errorCode, count, Long::sum);
+        if (AccountClient.LOCK_FAILURE.equals(errorCode)) {
+            lockFailures += count;
+        }
+    }
+
+    void add(ScenarioResult other) {
+        latencyMicros.add(other.latencyMicros);
+        other.errors.forEach((errorCode, count) -> errors.merge(errorCode, count, Long::sum));
+        requests += other.requests;
+        operations += other.operations;
+        exportedRows += other.exportedRows;
+        lockFailures += other.lockFailures;
+        setupFailures += other.setupFailures;
+    }
+
+    void print(Scenario scenario, int durationSeconds, PrintStream out) {
+        long errorCount = errors.values().stream().mapToLong(Long::longValue).sum();
+        out.printf("%n== %s ==%n", scenario);
+        out.printf("requests      %d (%.1f req/s)%n", requests, requests / (double) durationSeconds);
+        if (operations != requests) {
+            out.printf("operations    %d (%.1f ops/s)%n", operations, operations / (double) durationSeconds);
+        }
+        if (exportedRows > 0) {
+            out.printf("exported rows %d (%.1f rows/s)%n", exportedRows, exportedRows / (double) durationSeconds);
+        }
+        out.printf("latency ms    p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f%n",
+                millis(50), millis(90), millis(99), millis(99.9),
+                latencyMicros.getMaxValue() / 1000.0);
+        out.printf("errors        %d (%.2f%%) %s%n", errorCount, percent(errorCount), errors);
+        out.printf("lock failures %d (%.2f%%)%n", lockFailures, percent(lockFailures));
+        if (setupFailures > 0) {
+            out.printf("setup failed  %d (not measured)%n", setupFailures);
+        }
+    }
+
+    private double millis(double percentile) {
+        return latencyMicros.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private double percent(long count) {
+        return operations == 0 ? 0 : count * 100.0 / operations;
+    }
+}
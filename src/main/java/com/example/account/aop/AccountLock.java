@@ -1,5 +1,7 @@
 package com.example.account.aop;
 
+import com.example.account.type.LockPolicy;
+
 import java.lang.annotation.*;
 
 @Target(ElementType.METHOD)
@@ -7,5 +9,11 @@ import java.lang.annotation.*;
 @Documented
 @Inherited
 public @interface AccountLock {
-    long tryLockTime() default 5000L;
+    // lock 취득 대기 시간(ms), FAIL_FAST 정책이면 무시된다.
+    long tryLockTime() default 1000L;
+
+    // lock 자동 해제 시간(ms)
+    long leaseTime() default 5000L;
+
+    LockPolicy policy() default LockPolicy.WAIT;
 }
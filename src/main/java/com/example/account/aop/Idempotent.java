@@ -0,0 +1,12 @@
+package com.example.account.aop;
+
+import java.lang.annotation.*;
+
+// Idempotency-Key 헤더가 있으면 같은 키의 재요청에 처음 응답을 그대로 돌려준다.
+// 키는 HTTP 메서드, 매핑 경로와 계좌번호 범위로 나뉘고, 같은 키에 다른 요청 본문이 오면 IDEMPOTENCY_KEY_REUSED 로 거절한다.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface Idempotent {
+}
@@ -0,0 +1,21 @@
+package com.example.account.aop;
+
+import com.example.account.type.LockPolicy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class LockOptions {
+    public static final LockOptions DEFAULT = new LockOptions(1000L, 5000L, LockPolicy.WAIT);
+
+    private final long waitTime;
+    private final long leaseTime;
+    private final LockPolicy policy;
+
+    public static LockOptions from(AccountLock accountLock) {
+        long waitTime = accountLock.policy() == LockPolicy.FAIL_FAST ? 0L : accountLock.tryLockTime();
+
+        return new LockOptions(waitTime, accountLock.leaseTime(), accountLock.policy());
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.account.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Hibernate 가 실행하는 SQL 수를 요청 단위로 센다.
+// start() 를 호출한 스레드와, propagate() 로 감싼 작업을 실행하는 스레드의 쿼리만 센다.
+public class QueryCountInspector implements StatementInspector {
+    private static final ThreadLocal<AtomicInteger> COUNT = new ThreadLocal<>();
+
+    public static AtomicInteger start() {
+        AtomicInteger count = new AtomicInteger();
+        COUNT.set(count);
+
+        return count;
+    }
+
+    // 비동기 처리 후 다시 디스패치된 요청이 처음 만든 카운터로 이어서 센다.
+    public static void resume(AtomicInteger count) {
+        COUNT.set(count);
+    }
+
+    // 카운터는 그대로 두고 현재 스레드에서만 떼어낸다.
+    public static void detach() {
+        COUNT.remove();
+    }
+
+    // 시작하지 않은 스레드라면 -1 을 반환한다.
+    public static int finish() {
+        AtomicInteger count = COUNT.get();
+        COUNT.remove();
+
+        return count == null ? -1 : count.get();
+    }
+
+    // 호출한 스레드의 카운터를 작업을 실행하는 스레드로 넘긴다. 작업이 끝나면 원래 상태로 돌려놓는다.
+    public static Runnable propagate(Runnable task) {
+        AtomicInteger count = COUNT.get();
+        if (count == null) {
+            return task;
+        }
+
+        return () -> {
+            AtomicInteger previous = COUNT.get();
+            COUNT.set(count);
+            try {
+                task.run();
+            } finally {
+                if (previous == null) {
+                    COUNT.remove();
+                } else {
+                    COUNT.set(previous);
+                }
+            }
+        };
+    }
+
+    @Override
+    public String inspect(String sql) {
+        AtomicInteger count = COUNT.get();
+        if (count != null) {
+            count.incrementAndGet();
+        }
+
+        return sql;
+    }
+}
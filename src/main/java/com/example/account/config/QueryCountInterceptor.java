@@ -0,0 +1,57 @@
+package com.example.account.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 요청마다 실행된 쿼리 수를 uri 패턴별 분포로 기록한다.
+// 비동기 요청은 executor 스레드의 쿼리까지 합쳐서, 결과를 쓰는 재디스패치가 끝날 때 한 번 기록한다.
+@RequiredArgsConstructor
+public class QueryCountInterceptor implements AsyncHandlerInterceptor {
+    private static final String COUNT_ATTRIBUTE = QueryCountInterceptor.class.getName() + ".count";
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object count = request.getAttribute(COUNT_ATTRIBUTE);
+        if (count instanceof AtomicInteger) {
+            QueryCountInspector.resume((AtomicInteger) count);
+        } else {
+            request.setAttribute(COUNT_ATTRIBUTE, QueryCountInspector.start());
+        }
+
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        // 서블릿 스레드는 다른 요청을 받으러 가므로 카운터를 떼어낸다. 카운터는 request 속성에 남아있다.
+        QueryCountInspector.detach();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        int count = QueryCountInspector.finish();
+        if (count < 0) {
+            return;
+        }
+
+        // 실제 경로 대신 매핑된 패턴을 태그로 써서 계좌번호가 태그에 들어가지 않게 한다.
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("account.db.queries")
+                .description("SQL statements executed per request")
+                .tag("method", request.getMethod())
+                .tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+                .register(meterRegistry)
+                .record(count);
+    }
+}
@@ -1,12 +1,15 @@
 package com.example.account.controller;
 
-import com.example.account.domain.Account;
+import com.example.account.dto.AccountDetail;
 import com.example.account.dto.AccountInfo;
 import com.example.account.dto.CreateAccount;
 import com.example.account.dto.DeleteAccount;
 import com.example.account.service.AccountService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
 import java.util.List;
@@ -58,8 +61,18 @@ public class AccountController {
 
 
     @GetMapping("/account/{id}")
-    public Account getAccount(
-            @PathVariable Long id) {
-        return accountService.getAccount(id);
+    public ResponseEntity<AccountDetail> getAccount(
+            @PathVariable Long id, WebRequest webRequest) {
+        AccountDetail accountDetail = accountService.getAccount(id);
+
+        // If-None-Match 가 현재 버전과 같으면 본문 없이 304 를 돌려준다.
+        if (webRequest.checkNotModified(accountDetail.getETag())) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(accountDetail.getETag())
+                .body(accountDetail);
     }
 }
@@ -0,0 +1,54 @@
+package com.example.account.controller;
+
+import com.example.account.aop.Idempotent;
+import com.example.account.dto.AccountCommand;
+import com.example.account.dto.CancelBalance;
+import com.example.account.dto.UseBalance;
+import com.example.account.dto.UseBalanceBatch;
+import com.example.account.service.AccountCommandMailbox;
+import com.example.account.service.TransactionBatchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.Valid;
+import java.util.concurrent.CompletableFuture;
+
+// 잔액 사용/취소를 계좌별 mailbox 에 넣고 묶음 처리 결과를 비동기로 돌려준다.
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "account.execution.mode", havingValue = "ACTOR")
+public class ActorTransactionCommandController {
+
+    private final AccountCommandMailbox accountCommandMailbox;
+    private final TransactionBatchService transactionBatchService;
+
+    @PostMapping("/transaction/use")
+    @Idempotent
+    public CompletableFuture<UseBalance.Response> useBalance(
+            @Valid @RequestBody UseBalance.Request request
+    ) {
+        return accountCommandMailbox.submit(request.getAccountNumber(), AccountCommand.use(request))
+                .thenApply(UseBalance.Response::from);
+    }
+
+    // 일괄 요청은 이미 계좌별로 묶여 있으므로 mailbox 대신 executor 의 계좌 대기열로 바로 보낸다.
+    @PostMapping("/transaction/use/batch")
+    public CompletableFuture<UseBalanceBatch.Response> useBalanceBatch(
+            @Valid @RequestBody UseBalanceBatch.Request request
+    ) {
+        return transactionBatchService.useBalanceBatchAsync(request.getRequests())
+                .thenApply(UseBalanceBatch.Response::from);
+    }
+
+    @PostMapping("/transaction/cancel")
+    @Idempotent
+    public CompletableFuture<CancelBalance.Response> cancelBalance(
+            @Valid @RequestBody CancelBalance.Request request
+    ) {
+        return accountCommandMailbox.submit(request.getAccountNumber(), AccountCommand.cancel(request))
+                .thenApply(CancelBalance.Response::from);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.account.controller;
+
+import com.example.account.aop.Idempotent;
+import com.example.account.dto.CancelBalance;
+import com.example.account.dto.UseBalance;
+import com.example.account.dto.UseBalanceBatch;
+import com.example.account.service.AccountCommandExecutor;
+import com.example.account.service.LockService;
+import com.example.account.service.TransactionBatchService;
+import com.example.account.service.TransactionCommandService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.Valid;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+// 잔액 사용/취소를 AccountCommandExecutor 에서 처리하고 서블릿 스레드는 바로 반환한다.
+// Redisson lock 은 잡은 스레드에서만 풀 수 있으므로 lock 도 executor 스레드에서 잡는다.
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "account.execution.mode", havingValue = "ASYNC")
+public class AsyncTransactionCommandController {
+
+    private final TransactionCommandService transactionCommandService;
+    private final TransactionBatchService transactionBatchService;
+    private final AccountCommandExecutor accountCommandExecutor;
+    private final LockService lockService;
+
+    @PostMapping("/transaction/use")
+    @Idempotent
+    public CompletableFuture<UseBalance.Response> useBalance(
+            @Valid @RequestBody UseBalance.Request request
+    ) {
+        return submitWithLock(request.getAccountNumber(),
+                () -> UseBalance.Response.from(transactionCommandService.useBalance(request)));
+    }
+
+    @PostMapping("/transaction/use/batch")
+    public CompletableFuture<UseBalanceBatch.Response> useBalanceBatch(
+            @Valid @RequestBody UseBalanceBatch.Request request
+    ) {
+        return transactionBatchService.useBalanceBatchAsync(request.getRequests())
+                .thenApply(UseBalanceBatch.Response::from);
+    }
+
+    @PostMapping("/transaction/cancel")
+    @Idempotent
+    public CompletableFuture<CancelBalance.Response> cancelBalance(
+            @Valid @RequestBody CancelBalance.Request request
+    ) {
+        return submitWithLock(request.getAccountNumber(),
+                () -> CancelBalance.Response.from(transactionCommandService.cancelBalance(request)));
+    }
+
+    private <T> CompletableFuture<T> submitWithLock(String accountNumber, Supplier<T> command) {
+        return accountCommandExecutor.submit(accountNumber, () -> {
+            lockService.lock(accountNumber);
+            try {
+                return command.get();
+            } finally {
+                lockService.unlock(accountNumber);
+            }
+        });
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.account.controller;
+
+import com.example.account.aop.AccountLock;
+import com.example.account.aop.Idempotent;
+import com.example.account.dto.CancelBalance;
+import com.example.account.dto.UseBalance;
+import com.example.account.dto.UseBalanceBatch;
+import com.example.account.service.TransactionBatchService;
+import com.example.account.service.TransactionCommandService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.Valid;
+
+// 잔액 사용/취소를 요청 스레드에서 처리한다. lock 대기 동안 서블릿 스레드를 점유한다.
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "account.execution.mode", havingValue = "SYNC", matchIfMissing = true)
+public class TransactionCommandController {
+
+    private final TransactionCommandService transactionCommandService;
+    private final TransactionBatchService transactionBatchService;
+
+    @PostMapping("/transaction/use")
+    @Idempotent
+    @AccountLock
+    public UseBalance.Response useBalance(
+            @Valid @RequestBody UseBalance.Request request
+    ) {
+        return UseBalance.Response.from(transactionCommandService.useBalance(request));
+    }
+
+    @PostMapping("/transaction/use/batch")
+    public UseBalanceBatch.Response useBalanceBatch(
+            @Valid @RequestBody UseBalanceBatch.Request request
+    ) {
+        return UseBalanceBatch.Response.from(
+                transactionBatchService.useBalanceBatch(request.getRequests())
+        );
+    }
+
+    @PostMapping("/transaction/cancel")
+    @Idempotent
+    @AccountLock
+    public CancelBalance.Response cancelBalance(
+            @Valid @RequestBody CancelBalance.Request request
+    ) {
+        return CancelBalance.Response.from(transactionCommandService.cancelBalance(request));
+    }
+}
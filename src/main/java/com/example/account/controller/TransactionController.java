@@ -1,16 +1,31 @@
 package com.example.account.controller;
 
-import com.example.account.aop.AccountLock;
-import com.example.account.dto.CancelBalance;
+import com.example.account.dto.HistoricalBalance;
 import com.example.account.dto.QueryTransactionResponse;
-import com.example.account.dto.UseBalance;
-import com.example.account.exception.AccountException;
+import com.example.account.dto.TransactionHistory;
+import com.example.account.service.TransactionExportService;
 import com.example.account.service.TransactionService;
+import com.example.account.type.ExportFormat;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import javax.validation.Valid;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.Callable;
 
 @Slf4j
 @RestController
@@ -18,49 +33,70 @@ import javax.validation.Valid;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final TransactionExportService transactionExportService;
 
-    @PostMapping("/transaction/use")
-    @AccountLock
-    public UseBalance.Response useBalance(
-            @Valid @RequestBody UseBalance.Request request
-    ) {
-        try {
-            return UseBalance.Response.from(
-                    transactionService.useBalance(request.getUserId(), request.getAccountNumber(), request.getAmount())
-            );
-        } catch (AccountException e) {
+    @Value("${account.export.timeout:10m}")
+    private Duration exportTimeout;
 
-            log.error("Failed to use balance. ");
+    @GetMapping("/transaction/{transactionId}")
+    public QueryTransactionResponse queryTransaction(
+            @PathVariable String transactionId
+    ) {
+        return QueryTransactionResponse.from(
+                transactionService.queryTransaction(transactionId)
+        );
+    }
 
-            transactionService.saveFailedUseTransaction(request.getAccountNumber(), request.getAmount());
-            throw e;
-        }
+    @GetMapping("/account/{accountNumber}/transactions")
+    public TransactionHistory getTransactionHistory(
+            @PathVariable String accountNumber,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            @RequestParam(value = "transaction_type", required = false) TransactionType transactionType,
+            @RequestParam(value = "result_type", required = false) TransactionResultType resultType
+    ) {
+        return transactionService.getTransactionHistory(
+                accountNumber, cursor, size, transactionType, resultType);
     }
 
-    @PostMapping("/transaction/cancel")
-    @AccountLock
-    public CancelBalance.Response cancelBalance(
-            @Valid @RequestBody CancelBalance.Request request
+    @GetMapping("/account/{accountNumber}/balance")
+    public HistoricalBalance getBalanceAt(
+            @PathVariable String accountNumber,
+            @RequestParam("at") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at
     ) {
-        try {
-            return CancelBalance.Response.from(
-                    transactionService.cancelBalance(request.getTransactionId(), request.getAccountNumber(), request.getAmount())
-            );
-        } catch (AccountException e) {
+        return transactionService.getBalanceAt(accountNumber, at);
+    }
 
-            log.error("Failed to use balance. ");
+    @GetMapping("/account/{accountNumber}/transactions/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @PathVariable String accountNumber,
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "format", defaultValue = "CSV") ExportFormat format,
+            NativeWebRequest webRequest
+    ) {
+        StreamingResponseBody body = transactionExportService.exportLedger(accountNumber, from, to, format);
+        extendAsyncTimeout(webRequest);
 
-            transactionService.saveFailedCancelTransaction(request.getAccountNumber(), request.getAmount());
-            throw e;
-        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\""
+                        + accountNumber + "_" + from + "_" + to + "." + format.getExtension() + "\"")
+                .body(body);
     }
 
-    @GetMapping("/transaction/{transactionId}")
-    public QueryTransactionResponse queryTransaction(
-            @PathVariable String transactionId
-    ) {
-        return QueryTransactionResponse.from(
-                transactionService.queryTransaction(transactionId)
-        );
+    // 비동기 타임아웃은 전역 설정을 두고, 오래 걸리는 export 요청에만 늘려준다.
+    // StreamingResponseBody 는 비동기 처리를 시작하기 직전에 이 인터셉터를 거친다.
+    private void extendAsyncTimeout(NativeWebRequest webRequest) {
+        long timeoutMillis = exportTimeout.toMillis();
+        WebAsyncUtils.getAsyncManager(webRequest).registerCallableInterceptor(
+                "exportTimeout", new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                        if (request instanceof AsyncWebRequest) {
+                            ((AsyncWebRequest) request).setTimeout(timeoutMillis);
+                        }
+                    }
+                });
     }
 }
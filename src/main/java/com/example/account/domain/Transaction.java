@@ -4,6 +4,9 @@ import com.example.account.type.AccountStatus;
 import com.example.account.type.TransactionResultType;
 import com.example.account.type.TransactionType;
 import lombok.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -18,9 +21,22 @@ import java.time.LocalDateTime;
 @Builder
 @Entity
 @EntityListeners(AuditingEntityListener.class)
+@Table(
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_transaction_transaction_id", columnNames = "transaction_id"),
+                @UniqueConstraint(name = "uk_transaction_cancelled_by_transaction_id",
+                        columnNames = "cancelled_by_transaction_id")
+        },
+        indexes = {
+                @Index(name = "idx_transaction_account_id_transacted_at", columnList = "account_id, transacted_at"),
+                @Index(name = "idx_transaction_transacted_at", columnList = "transacted_at")
+        }
+)
 public class Transaction {
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_seq")
+    @GenericGenerator(name = "transaction_seq", strategy = "com.example.account.config.PooledSequenceGenerator",
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "transaction_seq"))
     private Long id;
 
     @Enumerated(EnumType.STRING)
@@ -28,14 +44,21 @@ public class Transaction {
     @Enumerated(EnumType.STRING)
     private TransactionResultType transactionResultType;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "account_id")
     private Account account;
     private Long amount;
     private Long balanceSnapshot;
 
+    @Column(name = "transaction_id")
     private String transactionId;
+    @Column(name = "transacted_at")
     private LocalDateTime transactedAt;
 
+    // 이 거래를 취소한 CANCEL 거래의 transactionId. 취소되지 않았으면 null.
+    @Column(name = "cancelled_by_transaction_id")
+    private String cancelledByTransactionId;
+
     @CreatedDate
     private LocalDateTime createdAt;
     @LastModifiedDate
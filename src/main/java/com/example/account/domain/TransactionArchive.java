@@ -0,0 +1,45 @@
+package com.example.account.domain;
+
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+// 취소 가능 기간이 지난 거래를 옮겨두는 테이블. id 는 원래 transaction 의 id 를 그대로 쓴다.
+// 계좌번호를 함께 저장해서 조회 시 account 와 조인하지 않는다.
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(
+        name = "transaction_archive",
+        uniqueConstraints = @UniqueConstraint(name = "uk_transaction_archive_transaction_id", columnNames = "transaction_id"),
+        indexes = @Index(name = "idx_transaction_archive_account_id_transacted_at", columnList = "account_id, transacted_at")
+)
+public class TransactionArchive {
+    @Id
+    private Long id;
+
+    @Column(name = "transaction_id")
+    private String transactionId;
+    @Column(name = "account_id")
+    private Long accountId;
+    private String accountNumber;
+
+    @Enumerated(EnumType.STRING)
+    private TransactionType transactionType;
+    @Enumerated(EnumType.STRING)
+    private TransactionResultType transactionResultType;
+    private Long amount;
+    private Long balanceSnapshot;
+
+    @Column(name = "transacted_at")
+    private LocalDateTime transactedAt;
+    private String cancelledByTransactionId;
+
+    private LocalDateTime archivedAt;
+}
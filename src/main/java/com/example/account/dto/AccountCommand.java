@@ -0,0 +1,33 @@
+package com.example.account.dto;
+
+import com.example.account.type.TransactionType;
+import lombok.*;
+
+// 계좌 대기열에 쌓이는 잔액 사용/취소 명령. USE 는 userId, CANCEL 은 transactionId 를 쓴다.
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccountCommand {
+    private TransactionType transactionType;
+    private Long userId;
+    private String transactionId;
+    private Long amount;
+
+    public static AccountCommand use(UseBalance.Request request) {
+        return AccountCommand.builder()
+                .transactionType(TransactionType.USE)
+                .userId(request.getUserId())
+                .amount(request.getAmount())
+                .build();
+    }
+
+    public static AccountCommand cancel(CancelBalance.Request request) {
+        return AccountCommand.builder()
+                .transactionType(TransactionType.CANCEL)
+                .transactionId(request.getTransactionId())
+                .amount(request.getAmount())
+                .build();
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.account.dto;
+
+import com.example.account.type.AccountStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccountDetail {
+    private Long id;
+    private Long userId;
+    private String accountNumber;
+    private AccountStatus accountStatus;
+    private Long balance;
+    private LocalDateTime registeredAt;
+    private LocalDateTime unRegisteredAt;
+
+    // 잔액/상태가 바뀔 때마다 증가하므로 ETag 로 사용한다.
+    @JsonIgnore
+    private Long version;
+
+    @JsonIgnore
+    public String getETag() {
+        return "\"" + id + "-" + version + "\"";
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.account.dto;
+
+import com.example.account.domain.Account;
+import com.example.account.type.AccountStatus;
+import lombok.*;
+
+// 캐시에 들어가 여러 요청이 함께 읽으므로 만든 뒤에는 바꿀 수 없다.
+@Getter
+@AllArgsConstructor
+@Builder
+public class AccountSnapshot {
+    private final Long id;
+    private final Long userId;
+    private final String accountNumber;
+    private final AccountStatus accountStatus;
+
+    public static AccountSnapshot fromEntity(Account account) {
+        return AccountSnapshot.builder()
+                .id(account.getId())
+                .userId(account.getAccountUser().getId())
+                .accountNumber(account.getAccountNumber())
+                .accountStatus(account.getAccountStatus())
+                .build();
+    }
+}
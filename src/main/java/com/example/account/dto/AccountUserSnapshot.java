@@ -0,0 +1,36 @@
+package com.example.account.dto;
+
+import com.example.account.domain.AccountUser;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// 캐시에 들어가 여러 요청이 함께 읽으므로 만든 뒤에는 바꿀 수 없다.
+@Getter
+@AllArgsConstructor
+@Builder
+public class AccountUserSnapshot {
+    private final Long id;
+    private final String name;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+
+    public static AccountUserSnapshot fromEntity(AccountUser accountUser) {
+        return AccountUserSnapshot.builder()
+                .id(accountUser.getId())
+                .name(accountUser.getName())
+                .createdAt(accountUser.getCreatedAt())
+                .updatedAt(accountUser.getUpdatedAt())
+                .build();
+    }
+
+    // 요청마다 새 인스턴스를 만들어 주므로 받은 쪽이 고쳐도 캐시에는 영향이 없다.
+    public AccountUser toEntity() {
+        return AccountUser.builder()
+                .id(id)
+                .name(name)
+                .createdAt(createdAt)
+                .updatedAt(updatedAt)
+                .build();
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.account.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// 취소 검증에 필요한 원거래 정보만 담는다.
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CancelTarget {
+    private Long id;
+    private Long accountId;
+    private String accountNumber;
+    private Long amount;
+    private LocalDateTime transactedAt;
+    private String cancelledByTransactionId;
+}
@@ -2,15 +2,12 @@ package com.example.account.dto;
 
 import com.example.account.domain.Account;
 import com.example.account.domain.Transaction;
+import com.example.account.type.ErrorCode;
 import com.example.account.type.TransactionResultType;
 import com.example.account.type.TransactionType;
 import lombok.*;
 
-import javax.persistence.EnumType;
-import javax.persistence.Enumerated;
-import javax.persistence.ManyToOne;
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 @Getter
 @Setter
@@ -25,6 +22,15 @@ public class TransactionDto {
     private Long balanceSnapshot;
     private String transactionId;
     private LocalDateTime transactedAt;
+    private ErrorCode errorCode;
+
+    // TransactionRepository 의 프로젝션 쿼리에서 사용한다.
+    public TransactionDto(String accountNumber, TransactionType transactionType,
+                          TransactionResultType transactionResultType, Long amount, Long balanceSnapshot,
+                          String transactionId, LocalDateTime transactedAt) {
+        this(accountNumber, transactionType, transactionResultType, amount, balanceSnapshot,
+                transactionId, transactedAt, null);
+    }
 
     public static TransactionDto fromEntity(Transaction transaction) {
         return TransactionDto.builder()
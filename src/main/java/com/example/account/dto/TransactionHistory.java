@@ -0,0 +1,19 @@
+package com.example.account.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransactionHistory {
+    private String accountNumber;
+    private List<TransactionHistoryItem> transactions;
+    private String nextCursor;
+    // 이 시각까지의 거래는 archive 로 옮겨져 목록에 없다. 마지막 페이지에만 채운다.
+    private LocalDateTime archivedUntil;
+}
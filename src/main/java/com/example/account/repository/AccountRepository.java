@@ -2,19 +2,68 @@ package com.example.account.repository;
 
 import com.example.account.domain.Account;
 import com.example.account.domain.AccountUser;
+import com.example.account.dto.AccountDetail;
+import com.example.account.dto.AccountDto;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
-    Optional<Account> findFirstByOrderByIdDesc();
-
     Integer countByAccountUser(AccountUser accountUser);
 
+    // 계좌번호는 모두 10자리라 문자열 max 가 숫자 max 와 같다.
+    @Query("select max(a.accountNumber) from Account a")
+    Optional<String> findMaxAccountNumber();
+
     Optional<Account> findByAccountNumber(String AccountNumber);
 
     List<Account> findByAccountUser(AccountUser accountUser);
+
+    List<Account> findByAccountUserId(Long userId);
+
+    @Query("select new com.example.account.dto.AccountDto(" +
+            "a.accountUser.id, a.accountNumber, a.balance, a.registeredAt, a.unRegisteredAt) " +
+            "from Account a where a.accountUser.id = :userId")
+    List<AccountDto> findAccountDtosByUserId(@Param("userId") Long userId);
+
+    @Query("select new com.example.account.dto.AccountDetail(" +
+            "a.id, a.accountUser.id, a.accountNumber, a.accountStatus, a.balance, " +
+            "a.registeredAt, a.unRegisteredAt, a.version) " +
+            "from Account a where a.id = :id")
+    Optional<AccountDetail> findDetailById(@Param("id") Long id);
+
+    List<Account> findByAccountNumberIn(Collection<String> accountNumbers);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Account a set a.balance = a.balance - :amount, a.updatedAt = :updatedAt, a.version = a.version + 1 " +
+            "where a.accountNumber = :accountNumber and a.balance >= :amount " +
+            "and a.accountStatus = com.example.account.type.AccountStatus.IN_USE")
+    int useBalance(@Param("accountNumber") String accountNumber,
+                   @Param("amount") Long amount,
+                   @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Account a set a.balance = a.balance + :amount, a.updatedAt = :updatedAt, a.version = a.version + 1 " +
+            "where a.id = :id")
+    int cancelBalance(@Param("id") Long id,
+                      @Param("amount") Long amount,
+                      @Param("updatedAt") LocalDateTime updatedAt);
+
+    // 묶음 처리용. 읽은 버전 그대로일 때만 잔액 변화량을 한 번에 반영한다.
+    @Modifying(clearAutomatically = true)
+    @Query("update Account a set a.balance = a.balance + :delta, a.updatedAt = :updatedAt, a.version = a.version + 1 " +
+            "where a.id = :id and a.version = :version and a.balance + :delta >= 0 " +
+            "and a.accountStatus = com.example.account.type.AccountStatus.IN_USE")
+    int applyBalanceDelta(@Param("id") Long id,
+                          @Param("delta") Long delta,
+                          @Param("version") Long version,
+                          @Param("updatedAt") LocalDateTime updatedAt);
 }
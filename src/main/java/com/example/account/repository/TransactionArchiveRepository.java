@@ -0,0 +1,75 @@
+package com.example.account.repository;
+
+import com.example.account.domain.TransactionArchive;
+import com.example.account.dto.TransactionDto;
+import com.example.account.dto.TransactionHistoryItem;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+@Repository
+public interface TransactionArchiveRepository extends JpaRepository<TransactionArchive, Long> {
+    @Query("select new com.example.account.dto.TransactionDto(" +
+            "t.accountNumber, t.transactionType, t.transactionResultType, t.amount, t.balanceSnapshot, " +
+            "t.transactionId, t.transactedAt) " +
+            "from TransactionArchive t where t.transactionId = :transactionId")
+    Optional<TransactionDto> findDtoByTransactionId(@Param("transactionId") String transactionId);
+
+    boolean existsByTransactionId(String transactionId);
+
+    @Query("select max(t.transactedAt) from TransactionArchive t where t.accountId = :accountId")
+    Optional<LocalDateTime> findLastTransactedAt(@Param("accountId") Long accountId);
+
+    // TransactionRepository.streamLedger 와 같은 순서로 읽어서 export 에서 합친다.
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.example.account.dto.TransactionHistoryItem(" +
+            "t.id, t.transactionId, t.transactionType, t.transactionResultType, t.amount, t.balanceSnapshot, t.transactedAt) " +
+            "from TransactionArchive t " +
+            "where t.accountId = :accountId " +
+            "and t.transactedAt >= :from and t.transactedAt < :to " +
+            "order by t.transactedAt asc, t.id asc")
+    Stream<TransactionHistoryItem> streamLedger(@Param("accountId") Long accountId,
+                                                @Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to);
+
+    @Query("select t.balanceSnapshot from TransactionArchive t " +
+            "where t.accountId = :accountId and t.transactedAt <= :at " +
+            "and t.transactionResultType = com.example.account.type.TransactionResultType.S " +
+            "order by t.transactedAt desc, t.id desc")
+    List<Long> findBalanceSnapshotsAtOrBefore(@Param("accountId") Long accountId,
+                                              @Param("at") LocalDateTime at,
+                                              Pageable pageable);
+
+    @Query("select new com.example.account.dto.TransactionHistoryItem(" +
+            "t.id, t.transactionId, t.transactionType, t.transactionResultType, t.amount, t.balanceSnapshot, t.transactedAt) " +
+            "from TransactionArchive t " +
+            "where t.accountId = :accountId and t.transactedAt > :at " +
+            "and t.transactionResultType = com.example.account.type.TransactionResultType.S " +
+            "order by t.transactedAt asc, t.id asc")
+    List<TransactionHistoryItem> findSucceededAfter(@Param("accountId") Long accountId,
+                                                    @Param("at") LocalDateTime at,
+                                                    Pageable pageable);
+
+    // transaction 테이블의 행을 DB 안에서 그대로 복사한다. 같은 트랜잭션에서 원본을 지워야 한다.
+    @Modifying
+    @Query("insert into TransactionArchive (id, transactionId, accountId, accountNumber, transactionType, " +
+            "transactionResultType, amount, balanceSnapshot, transactedAt, cancelledByTransactionId, archivedAt) " +
+            "select t.id, t.transactionId, a.id, a.accountNumber, t.transactionType, " +
+            "t.transactionResultType, t.amount, t.balanceSnapshot, t.transactedAt, t.cancelledByTransactionId, " +
+            "current_timestamp " +
+            "from Transaction t join t.account a where t.id in :ids")
+    int copyFromTransactions(@Param("ids") Collection<Long> ids);
+}
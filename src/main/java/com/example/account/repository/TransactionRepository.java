@@ -1,12 +1,117 @@
 package com.example.account.repository;
 
 import com.example.account.domain.Transaction;
+import com.example.account.dto.CancelTarget;
+import com.example.account.dto.TransactionDto;
+import com.example.account.dto.TransactionHistoryItem;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     Optional<Transaction> findByTransactionId(String transactionId);
+
+    @Query("select new com.example.account.dto.CancelTarget(" +
+            "t.id, a.id, a.accountNumber, t.amount, t.transactedAt, t.cancelledByTransactionId) " +
+            "from Transaction t join t.account a " +
+            "where t.transactionId = :transactionId")
+    Optional<CancelTarget> findCancelTargetByTransactionId(@Param("transactionId") String transactionId);
+
+    // 아직 취소되지 않은 경우에만 취소 거래를 기록한다. 0 이면 이미 취소된 거래다.
+    @Modifying
+    @Query("update Transaction t set t.cancelledByTransactionId = :cancelTransactionId " +
+            "where t.id = :id and t.cancelledByTransactionId is null")
+    int markCancelled(@Param("id") Long id,
+                      @Param("cancelTransactionId") String cancelTransactionId);
+
+    @Query("select new com.example.account.dto.TransactionDto(" +
+            "a.accountNumber, t.transactionType, t.transactionResultType, t.amount, t.balanceSnapshot, " +
+            "t.transactionId, t.transactedAt) " +
+            "from Transaction t join t.account a " +
+            "where t.transactionId = :transactionId")
+    Optional<TransactionDto> findDtoByTransactionId(@Param("transactionId") String transactionId);
+
+    // (account_id, transacted_at) 인덱스를 타는 keyset 페이지 조회. 첫 페이지와 다음 페이지를 나눠서 OR 조건을 피한다.
+    @Query("select new com.example.account.dto.TransactionHistoryItem(" +
+            "t.id, t.transactionId, t.transactionType, t.transactionResultType, t.amount, t.balanceSnapshot, t.transactedAt) " +
+            "from Transaction t " +
+            "where t.account.id = :accountId " +
+            "and (:transactionType is null or t.transactionType = :transactionType) " +
+            "and (:resultType is null or t.transactionResultType = :resultType) " +
+            "order by t.transactedAt desc, t.id desc")
+    List<TransactionHistoryItem> findHistoryFirstPage(@Param("accountId") Long accountId,
+                                                      @Param("transactionType") TransactionType transactionType,
+                                                      @Param("resultType") TransactionResultType resultType,
+                                                      Pageable pageable);
+
+    @Query("select new com.example.account.dto.TransactionHistoryItem(" +
+            "t.id, t.transactionId, t.transactionType, t.transactionResultType, t.amount, t.balanceSnapshot, t.transactedAt) " +
+            "from Transaction t " +
+            "where t.account.id = :accountId " +
+            "and (t.transactedAt < :transactedAt or (t.transactedAt = :transactedAt and t.id < :id)) " +
+            "and (:transactionType is null or t.transactionType = :transactionType) " +
+            "and (:resultType is null or t.transactionResultType = :resultType) " +
+            "order by t.transactedAt desc, t.id desc")
+    List<TransactionHistoryItem> findHistoryPageAfter(@Param("accountId") Long accountId,
+                                                      @Param("transactedAt") LocalDateTime transactedAt,
+                                                      @Param("id") Long id,
+                                                      @Param("transactionType") TransactionType transactionType,
+                                                      @Param("resultType") TransactionResultType resultType,
+                                                      Pageable pageable);
+
+    // 성공 거래의 balanceSnapshot 이 곧 그 시점의 잔액이므로, 시점 잔액은 인덱스 seek 한 번으로 구한다.
+    @Query("select t.balanceSnapshot from Transaction t " +
+            "where t.account.id = :accountId and t.transactedAt <= :at " +
+            "and t.transactionResultType = com.example.account.type.TransactionResultType.S " +
+            "order by t.transactedAt desc, t.id desc")
+    List<Long> findBalanceSnapshotsAtOrBefore(@Param("accountId") Long accountId,
+                                              @Param("at") LocalDateTime at,
+                                              Pageable pageable);
+
+    @Query("select new com.example.account.dto.TransactionHistoryItem(" +
+            "t.id, t.transactionId, t.transactionType, t.transactionResultType, t.amount, t.balanceSnapshot, t.transactedAt) " +
+            "from Transaction t " +
+            "where t.account.id = :accountId and t.transactedAt > :at " +
+            "and t.transactionResultType = com.example.account.type.TransactionResultType.S " +
+            "order by t.transactedAt asc, t.id asc")
+    List<TransactionHistoryItem> findSucceededAfter(@Param("accountId") Long accountId,
+                                                    @Param("at") LocalDateTime at,
+                                                    Pageable pageable);
+
+    // 보관 대상(오래된 거래)을 오래된 순으로 batch 크기만큼 고른다.
+    @Query("select t.id from Transaction t where t.transactedAt < :before order by t.transactedAt asc, t.id asc")
+    List<Long> findIdsTransactedBefore(@Param("before") LocalDateTime before, Pageable pageable);
+
+    @Modifying
+    @Query("delete from Transaction t where t.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    // 원장 export 용. 엔티티가 아닌 프로젝션이라 영속성 컨텍스트에 쌓이지 않고, fetch size 단위로 커서를 전진한다.
+    // 반드시 트랜잭션 안에서 소비하고 닫아야 한다.
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.example.account.dto.TransactionHistoryItem(" +
+            "t.id, t.transactionId, t.transactionType, t.transactionResultType, t.amount, t.balanceSnapshot, t.transactedAt) " +
+            "from Transaction t " +
+            "where t.account.id = :accountId " +
+            "and t.transactedAt >= :from and t.transactedAt < :to " +
+            "order by t.transactedAt asc, t.id asc")
+    Stream<TransactionHistoryItem> streamLedger(@Param("accountId") Long accountId,
+                                                @Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to);
 }
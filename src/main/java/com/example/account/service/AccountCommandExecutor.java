@@ -0,0 +1,173 @@
+package com.example.account.service;
+
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// 계좌 명령을 서블릿 스레드 대신 전용 스레드 풀에서 실행한다.
+// 계좌마다 대기열을 두고 한 번에 한 명령만 실행하며, 명령 하나를 실행한 계좌는 풀의 대기열 맨 뒤로 돌아가므로
+// 인기 계좌에 요청이 몰려도 다른 계좌가 굶지 않는다. 대기 명령이 한도를 넘으면 기다리지 않고 바로 거절한다.
+@Slf4j
+@Component
+// ACTOR 모드에서는 AccountCommandMailbox 가 계좌별 묶음 처리 작업을 여기에 넘긴다.
+@ConditionalOnExpression("'${account.execution.mode:SYNC}' == 'ASYNC' or '${account.execution.mode:SYNC}' == 'ACTOR'")
+public class AccountCommandExecutor {
+    private final ThreadPoolExecutor executor;
+    // 계좌에 대한 mapping 이 있는 동안에는 그 계좌의 drain 작업이 정확히 하나 예약되어 있거나 실행 중이다.
+    private final Map<String, Queue<Command<?>>> queues = new ConcurrentHashMap<>();
+    private final Semaphore pending;
+    private final int perAccountCapacity;
+    private final Counter rejectedCounter;
+    private final TaskDecorator taskDecorator;
+
+    public AccountCommandExecutor(
+            MeterRegistry meterRegistry,
+            TaskDecorator taskDecorator,
+            @Value("${account.execution.threads:64}") int threads,
+            @Value("${account.execution.max-pending:10000}") int maxPending,
+            @Value("${account.execution.per-account-capacity:200}") int perAccountCapacity
+    ) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> new Thread(runnable, "account-command-" + threadNumber.incrementAndGet()));
+        this.pending = new Semaphore(maxPending);
+        this.perAccountCapacity = perAccountCapacity;
+        this.taskDecorator = taskDecorator;
+        this.rejectedCounter = Counter.builder("account.command.rejected")
+                .description("Account commands rejected because the executor was overloaded")
+                .register(meterRegistry);
+        meterRegistry.gauge("account.command.pending", Tags.empty(), pending,
+                semaphore -> maxPending - semaphore.availablePermits());
+        meterRegistry.gaugeMapSize("account.command.active_accounts", Tags.empty(), queues);
+    }
+
+    public <T> CompletableFuture<T> submit(String accountNumber, Supplier<T> command) {
+        if (!pending.tryAcquire()) {
+            throw reject(accountNumber);
+        }
+
+        Command<T> task = new Command<>(command);
+
+        boolean[] accepted = new boolean[1];
+        boolean[] schedule = new boolean[1];
+        queues.compute(accountNumber, (key, queue) -> {
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                schedule[0] = true;
+            }
+            if (queue.size() < perAccountCapacity) {
+                queue.add(task);
+                accepted[0] = true;
+            }
+            // 새로 만든 대기열에 넣지 못했다면 mapping 을 만들지 않는다.
+            return queue.isEmpty() ? null : queue;
+        });
+
+        if (!accepted[0]) {
+            pending.release();
+            throw reject(accountNumber);
+        }
+        if (schedule[0]) {
+            schedule(accountNumber);
+        }
+
+        return task.future;
+    }
+
+    private void schedule(String accountNumber) {
+        try {
+            executor.execute(() -> drain(accountNumber));
+        } catch (RejectedExecutionException e) {
+            // 종료 중이면 남은 명령을 실패시킨다.
+            Queue<Command<?>> queue = queues.remove(accountNumber);
+            if (queue != null) {
+                queue.forEach(command -> command.fail(e));
+            }
+        }
+    }
+
+    private void drain(String accountNumber) {
+        Command<?>[] next = new Command<?>[1];
+        queues.computeIfPresent(accountNumber, (key, queue) -> {
+            next[0] = queue.poll();
+            return queue;
+        });
+        if (next[0] != null) {
+            next[0].run();
+        }
+
+        // 대기열이 비었으면 mapping 을 지우고 끝내고, 남았으면 다른 계좌 뒤에 다시 줄을 선다.
+        if (queues.computeIfPresent(accountNumber, (key, queue) -> queue.isEmpty() ? null : queue) != null) {
+            schedule(accountNumber);
+        }
+    }
+
+    private AccountException reject(String accountNumber) {
+        rejectedCounter.increment();
+        log.warn("Account command rejected for accountNumber : {}", accountNumber);
+
+        return new AccountException(ErrorCode.TOO_MANY_PENDING_COMMANDS);
+    }
+
+    private class Command<T> implements Runnable {
+        private final Supplier<T> supplier;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        // 제출한 스레드의 문맥(요청별 쿼리 수 등)을 실행 스레드로 넘기기 위해 제출 시점에 감싼다.
+        private final Runnable decorated;
+
+        private Command(Supplier<T> supplier) {
+            this.supplier = supplier;
+            this.decorated = taskDecorator.decorate(this::execute);
+        }
+
+        @Override
+        public void run() {
+            decorated.run();
+        }
+
+        private void execute() {
+            try {
+                future.complete(supplier.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                pending.release();
+            }
+        }
+
+        private void fail(Throwable e) {
+            future.completeExceptionally(e);
+            pending.release();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+}
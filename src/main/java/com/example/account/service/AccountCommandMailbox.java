@@ -0,0 +1,211 @@
+package com.example.account.service;
+
+import com.example.account.dto.AccountCommand;
+import com.example.account.dto.TransactionDto;
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+// 계좌마다 명령 대기열(mailbox)을 두고, 한 계좌의 명령은 항상 한 스레드만 처리한다(single writer).
+// 처리하는 동안 쌓인 명령을 최대 maxBatchSize 개씩 꺼내 lock 1번, 계좌 조회 1번, 트랜잭션 1개로 처리하므로
+// 요청이 몰리는 계좌일수록 묶음이 커진다. 처리 작업은 AccountCommandExecutor 에서 실행된다.
+// executor 에는 계좌마다 처리 작업 하나만 올라가므로 executor 의 한도로는 mailbox 에 쌓이는 명령을 막을 수 없다.
+// 그래서 대기 명령 한도는 mailbox 가 따로(account.execution.actor.*) 가진다.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "account.execution.mode", havingValue = "ACTOR")
+public class AccountCommandMailbox {
+    private final AccountCommandExecutor accountCommandExecutor;
+    private final TransactionService transactionService;
+    private final LockService lockService;
+    private final FailedTransactionWriter failedTransactionWriter;
+    // 계좌에 대한 mapping 이 있는 동안에는 그 계좌의 처리 작업이 정확히 하나 예약되어 있거나 실행 중이다.
+    private final Map<String, Queue<PendingCommand>> mailboxes = new ConcurrentHashMap<>();
+    private final Semaphore pending;
+    private final int perAccountCapacity;
+    private final int maxBatchSize;
+    private final DistributionSummary batchSizeSummary;
+    private final Counter rejectedCounter;
+
+    public AccountCommandMailbox(
+            AccountCommandExecutor accountCommandExecutor,
+            TransactionService transactionService,
+            LockService lockService,
+            FailedTransactionWriter failedTransactionWriter,
+            MeterRegistry meterRegistry,
+            @Value("${account.execution.actor.max-pending:10000}") int maxPending,
+            @Value("${account.execution.actor.mailbox-capacity:200}") int perAccountCapacity,
+            @Value("${account.execution.actor.max-batch-size:100}") int maxBatchSize
+    ) {
+        this.accountCommandExecutor = accountCommandExecutor;
+        this.transactionService = transactionService;
+        this.lockService = lockService;
+        this.failedTransactionWriter = failedTransactionWriter;
+        this.pending = new Semaphore(maxPending);
+        this.perAccountCapacity = perAccountCapacity;
+        this.maxBatchSize = maxBatchSize;
+        this.batchSizeSummary = DistributionSummary.builder("account.command.batch.size")
+                .description("Commands applied per account batch")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("account.command.mailbox.rejected")
+                .description("Account commands rejected because the mailbox was full")
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<TransactionDto> submit(String accountNumber, AccountCommand command) {
+        if (!pending.tryAcquire()) {
+            throw reject(accountNumber);
+        }
+
+        PendingCommand pendingCommand = new PendingCommand(command);
+        boolean[] accepted = new boolean[1];
+        boolean[] schedule = new boolean[1];
+        mailboxes.compute(accountNumber, (key, mailbox) -> {
+            if (mailbox == null) {
+                mailbox = new ArrayDeque<>();
+                schedule[0] = true;
+            }
+            if (mailbox.size() < perAccountCapacity) {
+                mailbox.add(pendingCommand);
+                accepted[0] = true;
+            }
+            return mailbox.isEmpty() ? null : mailbox;
+        });
+
+        if (!accepted[0]) {
+            pending.release();
+            throw reject(accountNumber);
+        }
+        if (schedule[0]) {
+            schedule(accountNumber);
+        }
+
+        return pendingCommand.future;
+    }
+
+    private void schedule(String accountNumber) {
+        CompletableFuture<Void> drained;
+        try {
+            drained = accountCommandExecutor.submit(accountNumber, () -> {
+                drain(accountNumber);
+                return null;
+            });
+        } catch (AccountException e) {
+            failAll(accountNumber, e);
+            return;
+        }
+        // executor 가 종료되어 처리 작업이 실행되지 못한 경우
+        drained.whenComplete((ignored, e) -> {
+            if (e != null) {
+                failAll(accountNumber, e);
+            }
+        });
+    }
+
+    private void drain(String accountNumber) {
+        List<PendingCommand> batch = new ArrayList<>();
+        mailboxes.computeIfPresent(accountNumber, (key, mailbox) -> {
+            while (batch.size() < maxBatchSize && !mailbox.isEmpty()) {
+                batch.add(mailbox.poll());
+            }
+            return mailbox;
+        });
+        if (!batch.isEmpty()) {
+            execute(accountNumber, batch);
+        }
+
+        // 처리하는 동안 새 명령이 들어왔으면 다른 계좌 뒤에 다시 줄을 선다.
+        if (mailboxes.computeIfPresent(accountNumber, (key, mailbox) -> mailbox.isEmpty() ? null : mailbox) != null) {
+            schedule(accountNumber);
+        }
+    }
+
+    private void execute(String accountNumber, List<PendingCommand> batch) {
+        batchSizeSummary.record(batch.size());
+
+        try {
+            lockService.lock(accountNumber);
+        } catch (AccountException e) {
+            batch.forEach(pendingCommand -> pendingCommand.fail(e));
+            return;
+        }
+
+        try {
+            List<TransactionDto> results = transactionService.executeCommands(accountNumber, batch.stream()
+                    .map(pendingCommand -> pendingCommand.command)
+                    .collect(Collectors.toList()));
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).complete(results.get(i));
+            }
+        } catch (AccountException e) {
+
+            log.error("Failed to execute account commands. ");
+
+            // 묶음 전체가 실패하면 동기 모드처럼 실패 거래를 따로 남긴다.
+            for (PendingCommand pendingCommand : batch) {
+                failedTransactionWriter.enqueue(pendingCommand.command.getTransactionType(),
+                        accountNumber, pendingCommand.command.getAmount());
+                pendingCommand.fail(e);
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to execute account commands.", e);
+            batch.forEach(pendingCommand -> pendingCommand.fail(e));
+        } finally {
+            lockService.unlock(accountNumber);
+        }
+    }
+
+    private void failAll(String accountNumber, Throwable e) {
+        Queue<PendingCommand> mailbox = mailboxes.remove(accountNumber);
+        if (mailbox != null) {
+            mailbox.forEach(pendingCommand -> pendingCommand.fail(e));
+        }
+    }
+
+    private AccountException reject(String accountNumber) {
+        rejectedCounter.increment();
+        log.warn("Account command rejected for accountNumber : {}", accountNumber);
+
+        return new AccountException(ErrorCode.TOO_MANY_PENDING_COMMANDS);
+    }
+
+    private class PendingCommand {
+        private final AccountCommand command;
+        private final CompletableFuture<TransactionDto> future = new CompletableFuture<>();
+
+        private PendingCommand(AccountCommand command) {
+            this.command = command;
+        }
+
+        // 명령별 실패는 F 거래로 이미 저장되어 있으므로 errorCode 만 예외로 돌려준다.
+        private void complete(TransactionDto transactionDto) {
+            if (transactionDto.getErrorCode() == null) {
+                future.complete(transactionDto);
+            } else {
+                future.completeExceptionally(new AccountException(transactionDto.getErrorCode()));
+            }
+            pending.release();
+        }
+
+        private void fail(Throwable e) {
+            future.completeExceptionally(e);
+            pending.release();
+        }
+    }
+}
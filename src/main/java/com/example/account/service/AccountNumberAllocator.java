@@ -0,0 +1,69 @@
+package com.example.account.service;
+
+import com.example.account.repository.AccountRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RAtomicLong;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Redis 의 RAtomicLong 에서 blockSize 만큼의 번호 구간을 한 번에 예약해 두고,
+// 구간이 소진될 때까지는 메모리에서만 계좌번호를 발급한다.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AccountNumberAllocator {
+    private static final long FIRST_ACCOUNT_NUMBER = 1000000000L;
+    private static final String SEQUENCE_KEY = "ACNO:SEQ";
+
+    private final RedissonClient redissonClient;
+    private final AccountRepository accountRepository;
+
+    @Value("${account.number.block-size:100}")
+    private long blockSize = 100;
+
+    // 재초기화 때 DB 최댓값에서 건너뛰는 폭. 다른 노드가 메모리에 들고 있는 구간은 DB 에 아직 없으므로
+    // 노드 수 x block-size 이상이어야 그 구간과 겹치지 않는다.
+    @Value("${account.number.reseed-gap:100000}")
+    private long reseedGap = 100000;
+
+    private long nextNumber;
+    private long blockEnd;
+
+    public synchronized String next() {
+        if (nextNumber >= blockEnd) {
+            reserveBlock();
+        }
+
+        return Long.toString(nextNumber++);
+    }
+
+    private void reserveBlock() {
+        RAtomicLong sequence = redissonClient.getAtomicLong(SEQUENCE_KEY);
+
+        // addAndGet 은 원자적이므로 여러 노드가 동시에 예약해도 구간이 겹치지 않는다.
+        long end = sequence.addAndGet(blockSize);
+        while (end - blockSize + 1 < FIRST_ACCOUNT_NUMBER) {
+            // 키가 없었던 경우(최초 기동, Redis 재시작, eviction). 노드가 떠 있는 동안에도 매번 확인한다.
+            seed(sequence, end);
+            end = sequence.addAndGet(blockSize);
+        }
+        nextNumber = end - blockSize + 1;
+        blockEnd = end + 1;
+        log.debug("Reserved account number block [{}, {}]", nextNumber, end);
+    }
+
+    private void seed(RAtomicLong sequence, long observed) {
+        // 여러 노드의 구간이 섞여 있으므로 id 순서가 아니라 가장 큰 계좌번호에서 이어가되,
+        // 다른 노드가 아직 발급하지 않은 구간을 피해 reseedGap 만큼 건너뛴다.
+        // 계좌가 하나도 없으면 처음 기동한 것으로 보고 첫 번호부터 시작한다.
+        long lastAccountNumber = accountRepository.findMaxAccountNumber()
+                .map(accountNumber -> Long.parseLong(accountNumber) + reseedGap)
+                .orElse(FIRST_ACCOUNT_NUMBER - 1);
+
+        // 방금 본 값일 때만 바꾸므로, 다른 노드가 먼저 초기화했다면 아무것도 하지 않는다.
+        sequence.compareAndSet(observed, lastAccountNumber);
+        log.info("Seeded account number sequence from {}", lastAccountNumber);
+    }
+}
@@ -2,10 +2,10 @@ package com.example.account.service;
 
 import com.example.account.domain.Account;
 import com.example.account.domain.AccountUser;
+import com.example.account.dto.AccountDetail;
 import com.example.account.dto.AccountDto;
 import com.example.account.exception.AccountException;
 import com.example.account.repository.AccountRepository;
-import com.example.account.repository.AccountUserRepository;
 import com.example.account.type.AccountStatus;
 import com.example.account.type.ErrorCode;
 import lombok.RequiredArgsConstructor;
@@ -15,24 +15,24 @@ import javax.transaction.Transactional;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class AccountService {
     private final AccountRepository accountRepository;
-    private final AccountUserRepository accountUserRepository;
+    private final AccountUserCache accountUserCache;
+    private final AccountNumberAllocator accountNumberAllocator;
+    private final AccountSnapshotCache accountSnapshotCache;
 
     @Transactional
     public AccountDto createAccount(Long userId, Long initialBalance) {
-        AccountUser accountUser = accountUserRepository.findById(userId)
+        AccountUser accountUser = accountUserCache.findById(userId)
                 .orElseThrow(() -> new AccountException(ErrorCode.USER_NOT_FOUND));
 
         validateCreateAccount(accountUser);
 
-        String newAccountNumber = accountRepository.findFirstByOrderByIdDesc()
-                .map(account -> (Integer.parseInt(account.getAccountNumber())) + 1 + "")
-                .orElse("1000000000");
+        String newAccountNumber = accountNumberAllocator.next();
+        accountSnapshotCache.evict(userId, newAccountNumber);
 
         return AccountDto.fromEntity(accountRepository.save(
                 Account.builder()
@@ -46,22 +46,23 @@ public class AccountService {
     }
 
     private void validateCreateAccount(AccountUser accountUser) {
+        // 캐시는 노드별이고 늦을 수 있으므로 계좌 수 제한은 DB 로만 판단한다.
         if (accountRepository.countByAccountUser(accountUser) >= 10) {
             throw new AccountException(ErrorCode.Max_ACCOUNT_PER_USER_10);
         }
     }
 
-    @Transactional
-    public Account getAccount(Long id) {
+    public AccountDetail getAccount(Long id) {
         if (id < 0) {
             throw new RuntimeException("Minus");
         }
-        return accountRepository.findById(id).get();
+        return accountRepository.findDetailById(id)
+                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
     }
 
     @Transactional
     public AccountDto deleteAccount(Long userId, String accountNumber) {
-        AccountUser accountUser = accountUserRepository.findById(userId)
+        AccountUser accountUser = accountUserCache.findById(userId)
                 .orElseThrow(() -> new AccountException(ErrorCode.USER_NOT_FOUND));
         Account account = accountRepository.findByAccountNumber(accountNumber)
                 .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
@@ -70,6 +71,7 @@ public class AccountService {
 
         account.setAccountStatus(AccountStatus.UNREGISTERED);
         account.setUnRegisteredAt(LocalDateTime.now());
+        accountSnapshotCache.evict(accountUser.getId(), accountNumber);
 
         /*테스트 코드(ArgumentCaptor<Account>)를 위한 코드
           불필요한 코드를 동작시키는 것 이기 때문에 추천하지 않음*/
@@ -93,14 +95,9 @@ public class AccountService {
 
     @Transactional
     public List<AccountDto> getAccountsByUserId(Long userId) {
-        AccountUser accountUser = accountUserRepository.findById(userId)
+        AccountUser accountUser = accountUserCache.findById(userId)
                 .orElseThrow(() -> new AccountException(ErrorCode.USER_NOT_FOUND));
 
-        List<Account> accounts = accountRepository.findByAccountUser(accountUser);
-
-        return accounts.stream()
-                .map(AccountDto::fromEntity)
-                //.map(account -> AccountDto.fromEntity(account))
-                .collect(Collectors.toList());
+        return accountRepository.findAccountDtosByUserId(accountUser.getId());
     }
 }
@@ -0,0 +1,99 @@
+package com.example.account.service;
+
+import com.example.account.dto.AccountSnapshot;
+import com.example.account.repository.AccountRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+// 계좌의 소유주, 상태, 계좌번호만 캐시한다. 잔액은 캐시하지 않는다.
+// 계좌 생성/해지 시 evict 해야 하며, 트랜잭션 안에서 호출되면 커밋 후에도 한 번 더 지운다.
+@Component
+public class AccountSnapshotCache {
+    private final AccountRepository accountRepository;
+    private final Cache<String, AccountSnapshot> byAccountNumber;
+    private final Cache<Long, List<AccountSnapshot>> byUserId;
+
+    public AccountSnapshotCache(
+            AccountRepository accountRepository,
+            MeterRegistry meterRegistry,
+            @Value("${account.cache.account-snapshot.maximum-size:100000}") long maximumSize,
+            @Value("${account.cache.account-snapshot.expire-after-write:1m}") Duration expireAfterWrite
+    ) {
+        this.accountRepository = accountRepository;
+        this.byAccountNumber = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.byUserId = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byAccountNumber, "accountSnapshotByAccountNumber");
+        CaffeineCacheMetrics.monitor(meterRegistry, byUserId, "accountSnapshotByUserId");
+    }
+
+    public Optional<AccountSnapshot> findByAccountNumber(String accountNumber) {
+        AccountSnapshot snapshot = byAccountNumber.getIfPresent(accountNumber);
+        if (snapshot != null) {
+            return Optional.of(snapshot);
+        }
+
+        Optional<AccountSnapshot> loaded = accountRepository.findByAccountNumber(accountNumber)
+                .map(AccountSnapshot::fromEntity);
+        loaded.ifPresent(account -> byAccountNumber.put(accountNumber, account));
+        return loaded;
+    }
+
+    public List<AccountSnapshot> findByUserId(Long userId) {
+        List<AccountSnapshot> snapshots = byUserId.getIfPresent(userId);
+        if (snapshots != null) {
+            return snapshots;
+        }
+
+        List<AccountSnapshot> loaded = Collections.unmodifiableList(
+                accountRepository.findByAccountUserId(userId).stream()
+                        .map(AccountSnapshot::fromEntity)
+                        .collect(Collectors.toList()));
+        byUserId.put(userId, loaded);
+        loaded.forEach(snapshot -> byAccountNumber.put(snapshot.getAccountNumber(), snapshot));
+        return loaded;
+    }
+
+    public void evict(Long userId, String accountNumber) {
+        Runnable evict = () -> {
+            byUserId.invalidate(userId);
+            if (accountNumber != null) {
+                byAccountNumber.invalidate(accountNumber);
+            }
+        };
+
+        evict.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        }
+    }
+
+    public void evictAll() {
+        byUserId.invalidateAll();
+        byAccountNumber.invalidateAll();
+    }
+}
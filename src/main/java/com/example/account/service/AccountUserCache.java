@@ -0,0 +1,58 @@
+package com.example.account.service;
+
+import com.example.account.domain.AccountUser;
+import com.example.account.dto.AccountUserSnapshot;
+import com.example.account.repository.AccountUserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+// 거의 바뀌지 않는 사용자 정보를 요청마다 조회하지 않도록 메모리에 캐시한다.
+// 영속 엔티티 대신 바꿀 수 없는 스냅샷을 캐시하고, 조회할 때마다 복사본을 돌려준다.
+// 없는 사용자는 캐시하지 않는다.
+@Component
+public class AccountUserCache {
+    private final AccountUserRepository accountUserRepository;
+    private final Cache<Long, AccountUserSnapshot> cache;
+
+    public AccountUserCache(
+            AccountUserRepository accountUserRepository,
+            MeterRegistry meterRegistry,
+            @Value("${account.cache.account-user.maximum-size:10000}") long maximumSize,
+            @Value("${account.cache.account-user.expire-after-write:10m}") Duration expireAfterWrite
+    ) {
+        this.accountUserRepository = accountUserRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "accountUser");
+    }
+
+    public Optional<AccountUser> findById(Long userId) {
+        AccountUserSnapshot snapshot = cache.getIfPresent(userId);
+        if (snapshot != null) {
+            return Optional.of(snapshot.toEntity());
+        }
+
+        Optional<AccountUserSnapshot> loaded = accountUserRepository.findById(userId)
+                .map(AccountUserSnapshot::fromEntity);
+        loaded.ifPresent(user -> cache.put(userId, user));
+        return loaded.map(AccountUserSnapshot::toEntity);
+    }
+
+    public void evict(Long userId) {
+        cache.invalidate(userId);
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+}
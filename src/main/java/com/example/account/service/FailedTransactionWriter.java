@@ -0,0 +1,196 @@
+package com.example.account.service;
+
+import com.example.account.dto.TransactionDto;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// 실패 거래 기록을 요청 스레드(계좌 lock 을 잡고 있는)에서 떼어내 백그라운드에서 모아서 저장한다.
+@Slf4j
+@Component
+public class FailedTransactionWriter {
+    private static final int MAX_FLUSH_ATTEMPTS = 3;
+    private static final long RETRY_BACKOFF_MILLIS = 100L;
+
+    private final TransactionService transactionService;
+    private final BlockingQueue<TransactionDto> queue;
+    private final int batchSize;
+    private final long offerTimeoutMillis;
+    private final Timer flushTimer;
+
+    // enqueue 는 read lock 안에서 running 확인과 offer 를 하고, 종료는 write lock 으로 running 을 내린다.
+    // 그래서 running 이 내려간 뒤에 큐에 들어오는 기록은 없다.
+    private final ReadWriteLock runningLock = new ReentrantReadWriteLock();
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public FailedTransactionWriter(
+            TransactionService transactionService,
+            MeterRegistry meterRegistry,
+            @Value("${account.failed-transaction.queue-capacity:10000}") int queueCapacity,
+            @Value("${account.failed-transaction.batch-size:100}") int batchSize,
+            @Value("${account.failed-transaction.offer-timeout-millis:50}") long offerTimeoutMillis
+    ) {
+        this.transactionService = transactionService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.flushTimer = Timer.builder("account.failed_transaction.flush")
+                .description("Time spent saving a batch of failed transactions")
+                .register(meterRegistry);
+        meterRegistry.gaugeCollectionSize("account.failed_transaction.queue.depth", Tags.empty(), queue);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writerThread = new Thread(this::run, "failed-transaction-writer");
+        writerThread.start();
+    }
+
+    public void enqueue(TransactionType transactionType, String accountNumber, Long amount) {
+        TransactionDto failedTransaction = TransactionDto.builder()
+                .transactionType(transactionType)
+                .transactionResultType(TransactionResultType.F)
+                .accountNumber(accountNumber)
+                .amount(amount)
+                // 잔액은 호출한 스레드에서 조회하지 않고, 저장할 때 계좌를 읽으면서 채운다.
+                .transactedAt(LocalDateTime.now())
+                .build();
+
+        if (offer(failedTransaction)) {
+            return;
+        }
+
+        // 큐가 가득 찼거나 종료 중이면 호출한 스레드에서 직접 저장해서 기록이 유실되지 않게 한다.
+        log.warn("Failed transaction queue is full or closed, saving synchronously.");
+        flush(Collections.singletonList(failedTransaction));
+    }
+
+    private boolean offer(TransactionDto failedTransaction) {
+        runningLock.readLock().lock();
+        try {
+            return running && queue.offer(failedTransaction, offerTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            runningLock.readLock().unlock();
+        }
+    }
+
+    private void run() {
+        List<TransactionDto> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                TransactionDto first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                // 더 받지 않도록 닫고, 이미 들어온 기록은 모두 저장한 뒤 끝낸다.
+                stopAccepting();
+                drainRemaining();
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void stopAccepting() {
+        runningLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            runningLock.writeLock().unlock();
+        }
+    }
+
+    private void drainRemaining() {
+        List<TransactionDto> remaining = new ArrayList<>(queue.size());
+        queue.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            flush(remaining.subList(from, Math.min(from + batchSize, remaining.size())));
+        }
+    }
+
+    private void flush(List<TransactionDto> batch) {
+        long startedAt = System.nanoTime();
+        try {
+            if (!saveBatch(batch)) {
+                // 묶음 저장이 계속 실패하면 한 건씩 저장해서 문제 있는 기록만 남긴다.
+                batch.forEach(this::saveOne);
+            }
+        } finally {
+            flushTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private boolean saveBatch(List<TransactionDto> batch) {
+        for (int attempt = 1; attempt <= MAX_FLUSH_ATTEMPTS; attempt++) {
+            try {
+                transactionService.saveFailedTransactions(batch);
+                return true;
+            } catch (Exception e) {
+                log.warn("Failed to save {} failed transactions (attempt {}/{})",
+                        batch.size(), attempt, MAX_FLUSH_ATTEMPTS, e);
+                if (attempt < MAX_FLUSH_ATTEMPTS && !backoff(attempt)) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void saveOne(TransactionDto failedTransaction) {
+        try {
+            transactionService.saveFailedTransactions(Collections.singletonList(failedTransaction));
+        } catch (Exception e) {
+            log.error("Dropping failed transaction record : type={}, accountNumber={}, amount={}, balanceSnapshot={}, transactedAt={}",
+                    failedTransaction.getTransactionType(), failedTransaction.getAccountNumber(),
+                    failedTransaction.getAmount(), failedTransaction.getBalanceSnapshot(),
+                    failedTransaction.getTransactedAt(), e);
+        }
+    }
+
+    private boolean backoff(int attempt) {
+        try {
+            Thread.sleep(RETRY_BACKOFF_MILLIS * attempt);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // 남은 기록을 모두 저장할 때까지 기다린다.
+        stopAccepting();
+        if (writerThread != null) {
+            writerThread.join();
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.account.service;
+
+import com.example.account.aop.AccountLockIdInterface;
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.annotation.PreDestroy;
+import javax.servlet.http.HttpServletRequest;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// 계좌 lock 보다 바깥에서 실행되어, 재요청은 lock 과 DB 를 거치지 않고 Redis 에 저장된 응답으로 끝난다.
+@Aspect
+@Component
+@Slf4j
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class IdempotencyAopAspect {
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String PENDING = "PENDING";
+    private static final char SEPARATOR = ':';
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final RedissonClient redissonClient;
+    private final ObjectMapper objectMapper;
+
+    @Value("${account.idempotency.ttl:24h}")
+    private Duration ttl = Duration.ofHours(24);
+
+    // 처리 중 표시의 유효 시간. 요청이 끝날 때까지 pending-ttl / 3 마다 연장하므로,
+    // 대기열에서 오래 기다리는 비동기 요청도 처리 중에 표시가 만료되지 않는다.
+    // 연장하던 노드가 죽으면 pending-ttl 뒤에 같은 키로 다시 시도할 수 있다.
+    @Value("${account.idempotency.pending-ttl:30s}")
+    private Duration pendingTtl = Duration.ofSeconds(30);
+
+    private final ScheduledExecutorService pendingRefresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "idempotency-pending-refresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Around("@annotation(com.example.account.aop.Idempotent)")
+    public Object aroundMethod(ProceedingJoinPoint pjp) throws Throwable {
+        HttpServletRequest request = getRequest();
+        String idempotencyKey = getIdempotencyKey(request);
+        if (idempotencyKey == null) {
+            return pjp.proceed();
+        }
+
+        MethodSignature signature = (MethodSignature) pjp.getSignature();
+        Object[] args = pjp.getArgs();
+        // 저장된 응답과 같은 요청인지 비교하기 위해 요청 본문의 hash 를 응답 앞에 붙여 저장한다.
+        String requestHash = requestHash(args);
+        RBucket<String> bucket = redissonClient.getBucket(
+                getKey(request, args, idempotencyKey), StringCodec.INSTANCE);
+
+        if (!bucket.trySet(requestHash + SEPARATOR + PENDING, pendingTtl.toMillis(), TimeUnit.MILLISECONDS)) {
+            log.debug("Replay for idempotency key : {}", idempotencyKey);
+            return replay(bucket.get(), requestHash, signature);
+        }
+        PendingMarker pendingMarker = new PendingMarker(bucket);
+
+        Object response;
+        try {
+            response = pjp.proceed();
+        } catch (Throwable e) {
+            // 실패한 요청은 저장하지 않아 같은 키로 다시 시도할 수 있게 한다.
+            pendingMarker.finish();
+            bucket.delete();
+            throw e;
+        }
+        if (response instanceof CompletionStage) {
+            // 비동기 응답은 완료된 뒤에 저장하거나 지운다.
+            return ((CompletionStage<?>) response).whenComplete((result, e) -> {
+                pendingMarker.finish();
+                if (e != null) {
+                    bucket.delete();
+                    return;
+                }
+                store(bucket, requestHash, result);
+            }).toCompletableFuture();
+        }
+        pendingMarker.finish();
+        store(bucket, requestHash, response);
+
+        return response;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pendingRefresher.shutdownNow();
+    }
+
+    private void store(RBucket<String> bucket, String requestHash, Object response) {
+        // 이미 커밋된 뒤라 저장에 실패해도 응답은 그대로 돌려준다.
+        // 처리 중 표시를 남겨두어 pending-ttl 동안은 같은 키의 재요청이 다시 실행되지 않게 한다.
+        try {
+            bucket.set(requestHash + SEPARATOR + objectMapper.writeValueAsString(response),
+                    ttl.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.error("Failed to store idempotent response : {}", bucket.getName(), e);
+        }
+    }
+
+    private Object replay(String stored, String requestHash, MethodSignature signature) throws JsonProcessingException {
+        if (stored == null) {
+            throw new AccountException(ErrorCode.IDEMPOTENT_REQUEST_IN_PROGRESS);
+        }
+        int separatorIndex = stored.indexOf(SEPARATOR);
+        if (separatorIndex < 0 || !requestHash.equals(stored.substring(0, separatorIndex))) {
+            throw new AccountException(ErrorCode.IDEMPOTENCY_KEY_REUSED);
+        }
+        String body = stored.substring(separatorIndex + 1);
+        if (PENDING.equals(body)) {
+            throw new AccountException(ErrorCode.IDEMPOTENT_REQUEST_IN_PROGRESS);
+        }
+
+        if (CompletionStage.class.isAssignableFrom(signature.getReturnType())) {
+            JavaType responseType = objectMapper.getTypeFactory()
+                    .constructType(signature.getMethod().getGenericReturnType())
+                    .containedType(0);
+            return CompletableFuture.completedFuture(objectMapper.readValue(body, responseType));
+        }
+
+        return objectMapper.readValue(body, signature.getReturnType());
+    }
+
+    String requestHash(Object[] args) throws JsonProcessingException {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(objectMapper.writeValueAsBytes(args));
+            return String.format("%064x", new BigInteger(1, digest));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpServletRequest getRequest() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (!(requestAttributes instanceof ServletRequestAttributes)) {
+            return null;
+        }
+        return ((ServletRequestAttributes) requestAttributes).getRequest();
+    }
+
+    private String getIdempotencyKey(HttpServletRequest request) {
+        if (request == null) {
+            return null;
+        }
+
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (!StringUtils.hasText(idempotencyKey)) {
+            return null;
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new AccountException(ErrorCode.INVALID_REQUEST);
+        }
+
+        return idempotencyKey;
+    }
+
+    // 키는 클라이언트가 정하므로 HTTP 메서드와 매핑 경로, 계좌번호 범위로 나눈다.
+    // 핸들러 클래스가 아니라 경로로 나누므로 실행 모드(SYNC/ASYNC/ACTOR)가 바뀌어도 같은 키는 같은 범위다.
+    private String getKey(HttpServletRequest request, Object[] args, String idempotencyKey) {
+        String accountNumber = Arrays.stream(args == null ? new Object[0] : args)
+                .filter(AccountLockIdInterface.class::isInstance)
+                .map(arg -> ((AccountLockIdInterface) arg).getAccountNumber())
+                .findFirst()
+                .orElse("");
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String path = pattern != null ? pattern.toString() : request.getRequestURI();
+        return "IDEM:" + request.getMethod() + " " + path
+                + ":" + accountNumber + ":" + idempotencyKey;
+    }
+
+    // 요청이 끝날 때까지 처리 중 표시의 만료 시간을 연장한다.
+    // finish 뒤에는 연장하지 않으므로, 저장한 응답의 ttl 을 pending-ttl 로 덮어쓰지 않는다.
+    private class PendingMarker {
+        private final RBucket<String> bucket;
+        private final ScheduledFuture<?> refresh;
+        private boolean finished;
+
+        PendingMarker(RBucket<String> bucket) {
+            this.bucket = bucket;
+            long period = Math.max(1L, pendingTtl.toMillis() / 3);
+            this.refresh = pendingRefresher.scheduleAtFixedRate(
+                    this::refresh, period, period, TimeUnit.MILLISECONDS);
+        }
+
+        private synchronized void refresh() {
+            if (finished) {
+                return;
+            }
+            try {
+                bucket.expire(pendingTtl.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                log.warn("Failed to refresh idempotency pending marker : {}", bucket.getName(), e);
+            }
+        }
+
+        synchronized void finish() {
+            finished = true;
+            refresh.cancel(false);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.account.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// 계좌번호 해시로 나눈 JVM 로컬 락 테이블.
+// 같은 노드로 들어온 요청은 여기서 먼저 줄을 서고, stripe 를 잡은 요청만 Redis 락을 시도한다.
+@Component
+public class LocalLockTable {
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public LocalLockTable(@Value("${account.lock.local-stripes:1024}") int stripeCount) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1) << 1);
+        this.stripes = new ReentrantLock[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public boolean tryLock(String accountNumber, long waitTime, TimeUnit unit) throws InterruptedException {
+        return stripe(accountNumber).tryLock(waitTime, unit);
+    }
+
+    public void unlock(String accountNumber) {
+        ReentrantLock lock = stripe(accountNumber);
+        if (lock.isHeldByCurrentThread()) {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock stripe(String accountNumber) {
+        int hash = accountNumber.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & mask];
+    }
+}
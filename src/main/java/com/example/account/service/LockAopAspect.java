@@ -1,27 +1,42 @@
 package com.example.account.service;
 
+import com.example.account.aop.AccountLock;
 import com.example.account.aop.AccountLockIdInterface;
+import com.example.account.aop.LockOptions;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 @Aspect
 @Component
 @Slf4j
+@Order(Ordered.LOWEST_PRECEDENCE)
 @RequiredArgsConstructor
 public class LockAopAspect {
     private final LockService lockService;
 
+    private final Map<Method, LockOptions> lockOptionsCache = new ConcurrentHashMap<>();
+
     @Around("@annotation(com.example.account.aop.AccountLock) && args(request)")
     public Object aroundMethod(
             ProceedingJoinPoint pjp,
             AccountLockIdInterface request
     ) throws Throwable {
+        LockOptions lockOptions = getLockOptions(pjp);
+
         // lock 취득 시도
-        lockService.lock(request.getAccountNumber());
+        lockService.lock(request.getAccountNumber(), lockOptions);
         try {
             return pjp.proceed();
         } finally {
@@ -29,4 +44,13 @@ public class LockAopAspect {
             lockService.unlock(request.getAccountNumber());
         }
     }
+
+    private LockOptions getLockOptions(ProceedingJoinPoint pjp) {
+        Method method = ((MethodSignature) pjp.getSignature()).getMethod();
+
+        return lockOptionsCache.computeIfAbsent(method, key -> {
+            AccountLock accountLock = AnnotatedElementUtils.findMergedAnnotation(key, AccountLock.class);
+            return accountLock == null ? LockOptions.DEFAULT : LockOptions.from(accountLock);
+        });
+    }
 }
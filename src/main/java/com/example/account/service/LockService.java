@@ -1,27 +1,119 @@
 package com.example.account.service;
 
+import com.example.account.aop.LockOptions;
 import com.example.account.exception.AccountException;
 import com.example.account.type.ErrorCode;
-import lombok.RequiredArgsConstructor;
+import com.example.account.type.LockMode;
+import com.example.account.type.LockPolicy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class LockService {
     private final RedissonClient redissonClient;
+    private final LocalLockTable localLockTable;
+    private final MeterRegistry meterRegistry;
+    private final Timer holdTimer;
+
+    private final Map<String, Timer> acquireTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> failureCounters = new ConcurrentHashMap<>();
+    // 계좌 락은 노드 안에서 한 번에 한 요청만 잡으므로 계좌번호로 잡은 시각을 기억해도 충돌하지 않는다.
+    private final Map<String, Long> lockedAt = new ConcurrentHashMap<>();
+
+    @Value("${account.lock.mode:REDIS}")
+    private LockMode lockMode = LockMode.REDIS;
+
+    @Value("${account.lock.local-fail-fast-wait-millis:50}")
+    private long localFailFastWaitMillis = 50L;
+
+    @Value("${account.metrics.lock-buckets:16}")
+    private int lockBuckets = 16;
+
+    public LockService(RedissonClient redissonClient, LocalLockTable localLockTable, MeterRegistry meterRegistry) {
+        this.redissonClient = redissonClient;
+        this.localLockTable = localLockTable;
+        this.meterRegistry = meterRegistry;
+        this.holdTimer = Timer.builder("account.lock.held")
+                .description("Time the account lock is held")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 
     public void lock(String accountNumber) {
+        lock(accountNumber, LockOptions.DEFAULT);
+    }
+
+    public void lock(String accountNumber, LockOptions lockOptions) {
+        if (lockMode == LockMode.OPTIMISTIC) {
+            // 단건 사용/취소는 조건부 UPDATE, 묶음 처리는 @Version 과 OptimisticRetry 로 동시성을 처리하므로 분산 락을 잡지 않는다.
+            return;
+        }
+
+        long startedAt = System.nanoTime();
+        boolean acquired = false;
+        try {
+            if (lockMode == LockMode.LOCAL_THEN_REDIS) {
+                lockLocal(accountNumber, lockOptions);
+                try {
+                    lockRedis(accountNumber, lockOptions);
+                } catch (RuntimeException e) {
+                    localLockTable.unlock(accountNumber);
+                    throw e;
+                }
+            } else {
+                lockRedis(accountNumber, lockOptions);
+            }
+            acquired = true;
+        } finally {
+            long lockedNanos = System.nanoTime();
+            acquireTimer(lockOptions, acquired).record(lockedNanos - startedAt, TimeUnit.NANOSECONDS);
+            if (acquired) {
+                lockedAt.put(accountNumber, lockedNanos);
+            } else {
+                failureCounter(lockOptions, accountNumber).increment();
+            }
+        }
+    }
+
+    private void lockLocal(String accountNumber, LockOptions lockOptions) {
+        try {
+            boolean isLock = localLockTable.tryLock(accountNumber, localWaitTime(lockOptions), TimeUnit.MILLISECONDS);
+            if (!isLock) {
+                log.error("======Local lock acquisition failed=====");
+                throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+        }
+    }
+
+    private long localWaitTime(LockOptions lockOptions) {
+        // stripe 는 해시가 겹친 다른 계좌와 공유하므로 FAIL_FAST 라도 짧게는 기다린다.
+        // 같은 계좌의 경합은 Redis 락에서 바로 실패한다.
+        if (lockOptions.getPolicy() == LockPolicy.FAIL_FAST) {
+            return Math.max(lockOptions.getWaitTime(), localFailFastWaitMillis);
+        }
+        return lockOptions.getWaitTime();
+    }
+
+    private void lockRedis(String accountNumber, LockOptions lockOptions) {
         RLock lock = redissonClient.getLock(getLockKey(accountNumber));
         log.debug("Trying lock for accountNumber : {}", accountNumber);
 
         try {
-            boolean isLock = lock.tryLock(1, 5, TimeUnit.SECONDS);
+            boolean isLock = lock.tryLock(lockOptions.getWaitTime(), lockOptions.getLeaseTime(), TimeUnit.MILLISECONDS);
             if (!isLock) {
                 log.error("======Lock acquisition failed=====");
                 throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
@@ -33,9 +125,47 @@ public class LockService {
         }
     }
 
+    private Timer acquireTimer(LockOptions lockOptions, boolean acquired) {
+        String result = acquired ? "acquired" : "failed";
+
+        return acquireTimers.computeIfAbsent(lockOptions.getPolicy().name() + ":" + result,
+                key -> Timer.builder("account.lock.acquire")
+                        .description("Time spent acquiring the account lock")
+                        .tag("policy", lockOptions.getPolicy().name())
+                        .tag("result", result)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry));
+    }
+
+    private Counter failureCounter(LockOptions lockOptions, String accountNumber) {
+        // 계좌번호를 그대로 태그로 쓰면 시계열이 폭발하므로 해시 bucket 으로 묶는다.
+        String bucket = Integer.toString(Math.floorMod(accountNumber.hashCode(), lockBuckets));
+
+        return failureCounters.computeIfAbsent(lockOptions.getPolicy().name() + ":" + bucket,
+                key -> Counter.builder("account.lock.failures")
+                        .description("Account lock acquisition failures by account hash bucket")
+                        .tag("policy", lockOptions.getPolicy().name())
+                        .tag("bucket", bucket)
+                        .register(meterRegistry));
+    }
+
     public void unlock(String accountNumber) {
+        if (lockMode == LockMode.OPTIMISTIC) {
+            return;
+        }
+
         log.debug("Unlock for accountNumber : {}", accountNumber);
-        redissonClient.getLock(getLockKey(accountNumber)).unlock();
+        Long startedAt = lockedAt.remove(accountNumber);
+        if (startedAt != null) {
+            holdTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+        try {
+            redissonClient.getLock(getLockKey(accountNumber)).unlock();
+        } finally {
+            if (lockMode == LockMode.LOCAL_THEN_REDIS) {
+                localLockTable.unlock(accountNumber);
+            }
+        }
     }
 
     private String getLockKey(String accountNumber) {
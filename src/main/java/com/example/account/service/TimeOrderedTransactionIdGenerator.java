@@ -0,0 +1,48 @@
+package com.example.account.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 32자리 hex 거래 ID : [48bit 생성 시각(ms)][16bit 노드 ID][64bit 노드 내 순번]
+// 시간 순으로 증가하므로 transaction_id 인덱스에 순차적으로 쌓이고, 노드 ID 와 순번으로 중복을 막는다.
+@Slf4j
+@Component
+public class TimeOrderedTransactionIdGenerator implements TransactionIdGenerator {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final int NODE_ID_MASK = 0xFFFF;
+
+    private final long nodeId;
+    private final AtomicLong sequence;
+
+    public TimeOrderedTransactionIdGenerator(
+            @Value("${account.transaction-id.node-id:-1}") int nodeId
+    ) {
+        // SecureRandom 은 기동 시에만 사용한다.
+        SecureRandom random = new SecureRandom();
+        this.nodeId = (nodeId < 0 ? random.nextInt() : nodeId) & NODE_ID_MASK;
+        this.sequence = new AtomicLong(random.nextLong());
+        log.info("Transaction id node id : {}", this.nodeId);
+    }
+
+    @Override
+    public String generate() {
+        long high = (System.currentTimeMillis() << 16) | nodeId;
+        long low = sequence.getAndIncrement();
+
+        char[] chars = new char[32];
+        writeHex(chars, 0, high);
+        writeHex(chars, 16, low);
+        return new String(chars);
+    }
+
+    private static void writeHex(char[] chars, int offset, long value) {
+        for (int i = offset + 15; i >= offset; i--) {
+            chars[i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.account.service;
+
+import com.example.account.repository.TransactionArchiveRepository;
+import com.example.account.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// 취소 가능 기간이 지난 거래를 transaction_archive 로 옮긴다.
+// batch 마다 별도의 DB 트랜잭션으로 복사 후 삭제해서 lock 을 오래 잡지 않는다.
+@Slf4j
+@Component
+public class TransactionArchiver {
+    private static final Duration MIN_HORIZON = Duration.ofDays(366);
+    private static final String ARCHIVE_LOCK_KEY = "ARCHIVE:LOCK";
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionArchiveRepository transactionArchiveRepository;
+    private final RedissonClient redissonClient;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration horizon;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    public TransactionArchiver(
+            TransactionRepository transactionRepository,
+            TransactionArchiveRepository transactionArchiveRepository,
+            RedissonClient redissonClient,
+            PlatformTransactionManager transactionManager,
+            @Value("${account.archive.horizon:400d}") Duration horizon,
+            @Value("${account.archive.batch-size:1000}") int batchSize,
+            @Value("${account.archive.max-batches-per-run:100}") int maxBatchesPerRun
+    ) {
+        if (horizon.compareTo(MIN_HORIZON) < 0) {
+            // 취소 가능한 거래가 archive 로 넘어가면 cancelBalance 가 찾지 못한다.
+            throw new IllegalArgumentException("account.archive.horizon must be at least " + MIN_HORIZON);
+        }
+        this.transactionRepository = transactionRepository;
+        this.transactionArchiveRepository = transactionArchiveRepository;
+        this.redissonClient = redissonClient;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.horizon = horizon;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    @Scheduled(initialDelayString = "${account.archive.fixed-delay-millis:3600000}",
+            fixedDelayString = "${account.archive.fixed-delay-millis:3600000}")
+    public void archive() {
+        // 여러 인스턴스가 같은 행을 옮기지 않도록 한 곳에서만 실행한다.
+        RLock lock = redissonClient.getLock(ARCHIVE_LOCK_KEY);
+        if (!lock.tryLock()) {
+            log.debug("Archiving is running on another instance");
+            return;
+        }
+        try {
+            archiveBefore(LocalDateTime.now().minus(horizon));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long archiveBefore(LocalDateTime before) {
+        long archived = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int moved = archiveBatch(before);
+            archived += moved;
+            if (moved < batchSize) {
+                break;
+            }
+        }
+        if (archived > 0) {
+            log.info("Archived {} transactions older than {}", archived, before);
+        }
+
+        return archived;
+    }
+
+    private int archiveBatch(LocalDateTime before) {
+        Integer moved = transactionTemplate.execute(status -> {
+            List<Long> ids = transactionRepository.findIdsTransactedBefore(before, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            transactionArchiveRepository.copyFromTransactions(ids);
+            transactionRepository.deleteByIds(ids);
+            return ids.size();
+        });
+
+        return moved == null ? 0 : moved;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.account.service;
+
+import com.example.account.dto.TransactionDto;
+import com.example.account.dto.UseBalance;
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransactionBatchService {
+    private final LockService lockService;
+    private final TransactionService transactionService;
+    private final FailedTransactionWriter failedTransactionWriter;
+    // ASYNC/ACTOR 모드에서만 있다.
+    private final ObjectProvider<AccountCommandExecutor> accountCommandExecutor;
+
+    public List<TransactionDto> useBalanceBatch(List<UseBalance.Request> requests) {
+        // 계좌별로 묶어서 계좌당 lock 1번, DB 트랜잭션 1개로 처리하고 결과는 요청 순서대로 돌려준다.
+        TransactionDto[] results = new TransactionDto[requests.size()];
+        groupByAccountNumber(requests).forEach((accountNumber, indexes) ->
+                fillResults(results, indexes, useBalanceGroup(accountNumber, group(requests, indexes))));
+
+        return Arrays.asList(results);
+    }
+
+    // 계좌 묶음마다 AccountCommandExecutor 의 계좌 대기열을 거치므로 같은 계좌의 단건 명령과 차례대로 처리된다.
+    public CompletableFuture<List<TransactionDto>> useBalanceBatchAsync(List<UseBalance.Request> requests) {
+        AccountCommandExecutor executor = accountCommandExecutor.getObject();
+        TransactionDto[] results = new TransactionDto[requests.size()];
+        List<CompletableFuture<Void>> groupFutures = new ArrayList<>();
+        groupByAccountNumber(requests).forEach((accountNumber, indexes) -> {
+            List<UseBalance.Request> group = group(requests, indexes);
+            CompletableFuture<List<TransactionDto>> groupResults;
+            try {
+                groupResults = executor.submit(accountNumber, () -> useBalanceGroup(accountNumber, group));
+            } catch (AccountException e) {
+                // 대기 한도를 넘은 계좌 묶음만 실패로 돌려준다.
+                groupResults = CompletableFuture.completedFuture(failAll(accountNumber, group, e.getErrorCode()));
+            }
+            groupFutures.add(groupResults
+                    .exceptionally(e -> {
+                        log.error("Failed to use balance in batch.", e);
+                        return failAll(accountNumber, group, ErrorCode.INTERNAL_SERVER_ERROR);
+                    })
+                    .thenAccept(groupResult -> fillResults(results, indexes, groupResult)));
+        });
+
+        return CompletableFuture.allOf(groupFutures.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> Arrays.asList(results));
+    }
+
+    private Map<String, List<Integer>> groupByAccountNumber(List<UseBalance.Request> requests) {
+        Map<String, List<Integer>> indexesByAccountNumber = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            indexesByAccountNumber.computeIfAbsent(requests.get(i).getAccountNumber(), key -> new ArrayList<>())
+                    .add(i);
+        }
+        return indexesByAccountNumber;
+    }
+
+    private List<UseBalance.Request> group(List<UseBalance.Request> requests, List<Integer> indexes) {
+        return indexes.stream()
+                .map(requests::get)
+                .collect(Collectors.toList());
+    }
+
+    private void fillResults(TransactionDto[] results, List<Integer> indexes, List<TransactionDto> groupResults) {
+        for (int i = 0; i < indexes.size(); i++) {
+            results[indexes.get(i)] = groupResults.get(i);
+        }
+    }
+
+    private List<TransactionDto> useBalanceGroup(String accountNumber, List<UseBalance.Request> group) {
+        try {
+            lockService.lock(accountNumber);
+        } catch (AccountException e) {
+            return failAll(accountNumber, group, e.getErrorCode());
+        }
+
+        try {
+            return transactionService.useBalanceInBatch(accountNumber, group);
+        } catch (AccountException e) {
+            log.error("Failed to use balance in batch. ");
+            return failAll(accountNumber, group, e.getErrorCode());
+        } catch (RuntimeException e) {
+            // 앞선 계좌 묶음은 이미 커밋되었으므로 요청 전체를 실패시키지 않고 이 묶음만 실패로 돌려준다.
+            log.error("Failed to use balance in batch.", e);
+            return failAll(accountNumber, group, ErrorCode.INTERNAL_SERVER_ERROR);
+        } finally {
+            lockService.unlock(accountNumber);
+        }
+    }
+
+    // 묶음 전체가 실패하면 단건 사용처럼 요청마다 실패 거래를 남긴다.
+    private List<TransactionDto> failAll(String accountNumber, List<UseBalance.Request> group, ErrorCode errorCode) {
+        group.forEach(request ->
+                failedTransactionWriter.enqueue(TransactionType.USE, accountNumber, request.getAmount()));
+
+        return group.stream()
+                .map(request -> TransactionDto.builder()
+                        .accountNumber(accountNumber)
+                        .transactionType(TransactionType.USE)
+                        .transactionResultType(TransactionResultType.F)
+                        .amount(request.getAmount())
+                        .errorCode(errorCode)
+                        .build())
+                .collect(Collectors.toList());
+    }
+}
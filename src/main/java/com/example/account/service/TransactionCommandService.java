@@ -0,0 +1,45 @@
+package com.example.account.service;
+
+import com.example.account.dto.CancelBalance;
+import com.example.account.dto.TransactionDto;
+import com.example.account.dto.UseBalance;
+import com.example.account.exception.AccountException;
+import com.example.account.type.TransactionType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+// 동기/비동기 컨트롤러가 같이 쓰는 잔액 사용/취소 처리. 실패하면 실패 거래를 남기고 예외를 그대로 던진다.
+// lock 은 호출하는 쪽에서 잡는다.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransactionCommandService {
+    private final TransactionService transactionService;
+    private final FailedTransactionWriter failedTransactionWriter;
+
+    public TransactionDto useBalance(UseBalance.Request request) {
+        try {
+            return transactionService.useBalance(request.getUserId(), request.getAccountNumber(), request.getAmount());
+        } catch (AccountException e) {
+
+            log.error("Failed to use balance. ");
+
+            failedTransactionWriter.enqueue(TransactionType.USE, request.getAccountNumber(), request.getAmount());
+            throw e;
+        }
+    }
+
+    public TransactionDto cancelBalance(CancelBalance.Request request) {
+        try {
+            return transactionService.cancelBalance(
+                    request.getTransactionId(), request.getAccountNumber(), request.getAmount());
+        } catch (AccountException e) {
+
+            log.error("Failed to cancel balance. ");
+
+            failedTransactionWriter.enqueue(TransactionType.CANCEL, request.getAccountNumber(), request.getAmount());
+            throw e;
+        }
+    }
+}
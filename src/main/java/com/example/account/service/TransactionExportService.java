@@ -0,0 +1,134 @@
+package com.example.account.service;
+
+import com.example.account.dto.AccountSnapshot;
+import com.example.account.dto.TransactionHistoryItem;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.TransactionArchiveRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.ExportFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// 계좌 원장을 한 건씩 응답 스트림에 흘려보낸다. 결과 크기와 무관하게 힙 사용량이 일정해야 한다.
+@Slf4j
+@Service
+public class TransactionExportService {
+    private static final String CSV_HEADER =
+            "transaction_id,transaction_type,transaction_result_type,amount,balance_snapshot,transacted_at";
+    private static final int FLUSH_EVERY = 1000;
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionArchiveRepository transactionArchiveRepository;
+    private final AccountSnapshotCache accountSnapshotCache;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    public TransactionExportService(TransactionRepository transactionRepository,
+                                    TransactionArchiveRepository transactionArchiveRepository,
+                                    AccountSnapshotCache accountSnapshotCache,
+                                    ObjectMapper objectMapper,
+                                    PlatformTransactionManager transactionManager) {
+        this.transactionRepository = transactionRepository;
+        this.transactionArchiveRepository = transactionArchiveRepository;
+        this.accountSnapshotCache = accountSnapshotCache;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    public StreamingResponseBody exportLedger(String accountNumber, LocalDate from, LocalDate to,
+                                              ExportFormat format) {
+        if (from.isAfter(to)) {
+            throw new AccountException(ErrorCode.INVALID_REQUEST);
+        }
+        // 계좌 검증은 응답을 쓰기 전에 끝내서 에러가 일반 에러 응답으로 나가도록 한다.
+        Long accountId = accountSnapshotCache.findByAccountNumber(accountNumber)
+                .map(AccountSnapshot::getId)
+                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+        LocalDateTime fromInclusive = from.atStartOfDay();
+        LocalDateTime toExclusive = to.plusDays(1).atStartOfDay();
+
+        // Stream 은 트랜잭션이 열려있는 동안에만 읽을 수 있으므로 비동기 쓰기 스레드에서 트랜잭션을 연다.
+        return outputStream -> {
+            long rows = transactionTemplate.execute(status -> {
+                try {
+                    return writeLedger(accountId, fromInclusive, toExclusive, format, outputStream);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            log.info("Exported {} transactions of account {}", rows, accountNumber);
+        };
+    }
+
+    // archive 로 옮겨진 거래도 원장에 포함한다. archive 의 거래가 항상 더 오래됐으므로 archive 를 끝까지 읽은 뒤
+    // 현재 테이블을 읽으면 원장 순서가 된다. 커서를 한 번에 하나만 열어서, 연결 하나에 결과 셋 하나만 스트리밍하는
+    // 드라이버(MySQL 의 fetchSize=Integer.MIN_VALUE 등)에서도 동작한다.
+    private long writeLedger(Long accountId, LocalDateTime fromInclusive, LocalDateTime toExclusive,
+                             ExportFormat format, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        long rows;
+        try (Stream<TransactionHistoryItem> archived =
+                     transactionArchiveRepository.streamLedger(accountId, fromInclusive, toExclusive)) {
+            rows = writeRows(archived.iterator(), format, writer, 0);
+        }
+        try (Stream<TransactionHistoryItem> ledger =
+                     transactionRepository.streamLedger(accountId, fromInclusive, toExclusive)) {
+            rows = writeRows(ledger.iterator(), format, writer, rows);
+        }
+        writer.flush();
+
+        return rows;
+    }
+
+    private long writeRows(Iterator<TransactionHistoryItem> ledger, ExportFormat format, Writer writer,
+                           long rows) throws IOException {
+        while (ledger.hasNext()) {
+            TransactionHistoryItem item = ledger.next();
+            if (format == ExportFormat.CSV) {
+                writeCsvLine(writer, item);
+            } else {
+                writer.write(objectMapper.writeValueAsString(item));
+            }
+            writer.write('\n');
+
+            if (++rows % FLUSH_EVERY == 0) {
+                writer.flush();
+            }
+        }
+
+        return rows;
+    }
+
+    private void writeCsvLine(Writer writer, TransactionHistoryItem item) throws IOException {
+        // 모든 컬럼이 숫자, enum, 날짜, hex 문자열이라 별도의 escape 가 필요 없다.
+        writer.write(item.getTransactionId());
+        writer.write(',');
+        writer.write(item.getTransactionType().name());
+        writer.write(',');
+        writer.write(item.getTransactionResultType().name());
+        writer.write(',');
+        writer.write(String.valueOf(item.getAmount()));
+        writer.write(',');
+        writer.write(String.valueOf(item.getBalanceSnapshot()));
+        writer.write(',');
+        writer.write(item.getTransactedAt().toString());
+    }
+}
@@ -1,123 +1,451 @@
 package com.example.account.service;
 
+import com.example.account.aop.OptimisticRetry;
 import com.example.account.domain.Account;
 import com.example.account.domain.AccountUser;
 import com.example.account.domain.Transaction;
+import com.example.account.dto.AccountCommand;
+import com.example.account.dto.AccountDetail;
+import com.example.account.dto.AccountSnapshot;
+import com.example.account.dto.CancelTarget;
+import com.example.account.dto.HistoricalBalance;
 import com.example.account.dto.TransactionDto;
+import com.example.account.dto.TransactionHistory;
+import com.example.account.dto.TransactionHistoryItem;
+import com.example.account.dto.UseBalance;
 import com.example.account.exception.AccountException;
 import com.example.account.repository.AccountRepository;
-import com.example.account.repository.AccountUserRepository;
+import com.example.account.repository.TransactionArchiveRepository;
 import com.example.account.repository.TransactionRepository;
 import com.example.account.type.AccountStatus;
 import com.example.account.type.ErrorCode;
 import com.example.account.type.TransactionResultType;
 import com.example.account.type.TransactionType;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
 import javax.transaction.Transactional;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
-import java.util.Objects;
-import java.util.UUID;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class TransactionService {
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
     private final TransactionRepository transactionRepository;
-    private final AccountUserRepository accountUserRepository;
+    private final AccountUserCache accountUserCache;
     private final AccountRepository accountRepository;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final AccountSnapshotCache accountSnapshotCache;
+    private final TransactionArchiveRepository transactionArchiveRepository;
 
+    // 차감은 잔액/상태 조건을 건 단일 UPDATE 라 버전 충돌이 생기지 않으므로 OptimisticRetry 를 걸지 않는다.
+    @Timed(value = "account.transaction.service", histogram = true)
     @Transactional
     public TransactionDto useBalance(Long userId, String accountNumber, Long amount) {
 
-        AccountUser user = accountUserRepository.findById(userId)
+        AccountUser user = accountUserCache.findById(userId)
                 .orElseThrow(() -> new AccountException(ErrorCode.USER_NOT_FOUND));
 
-        Account account = accountRepository.findByAccountNumber(accountNumber)
+        AccountSnapshot accountSnapshot = accountSnapshotCache.findByAccountNumber(accountNumber)
                 .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
 
-        validateUseBalance(user, account, amount);
+        validateUseBalance(user, accountSnapshot);
 
-        account.useBalance(amount);
+        // 잔액/상태 조건을 건 단일 UPDATE 로 차감한다. 조건에 맞지 않으면 0 row.
+        if (accountRepository.useBalance(accountNumber, amount, LocalDateTime.now()) == 0) {
+            throw useBalanceFailure(accountNumber);
+        }
+
+        Account account = accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
 
         return TransactionDto.fromEntity(saveAndGetTransaction(TransactionType.USE, TransactionResultType.S, account, amount));
     }
 
-    private void validateUseBalance(AccountUser user, Account account, Long amount) {
+    private void validateUseBalance(AccountUser user, AccountSnapshot accountSnapshot) {
+        if (!Objects.equals(user.getId(), accountSnapshot.getUserId())) {
+            throw new AccountException(ErrorCode.USER_ACCOUNT_UN_MATCH);
+        }
+        if (accountSnapshot.getAccountStatus() != AccountStatus.IN_USE) {
+            throw new AccountException(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
+        }
+    }
+
+    private AccountException useBalanceFailure(String accountNumber) {
+        Account account = accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+
+        if (account.getAccountStatus() != AccountStatus.IN_USE) {
+            // 캐시된 상태가 오래된 경우
+            accountSnapshotCache.evict(account.getAccountUser().getId(), accountNumber);
+            return new AccountException(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
+        }
+        return new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE);
+    }
+
+    private void validateUseBalance(AccountUser user, Account account, Long amount, long balance) {
         if (!Objects.equals(user.getId(), account.getAccountUser().getId())) {
             throw new AccountException(ErrorCode.USER_ACCOUNT_UN_MATCH);
         }
         if (account.getAccountStatus() != AccountStatus.IN_USE) {
             throw new AccountException(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
         }
-        if (account.getBalance() < amount) {
+        if (balance < amount) {
             throw new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE);
         }
     }
 
+    private Transaction saveAndGetTransaction(TransactionType transactionType, TransactionResultType transactionResultType, Account account, Long amount) {
+        return transactionRepository.save(
+                buildTransaction(transactionType, transactionResultType, account, amount)
+        );
+    }
+
+    private Transaction buildTransaction(TransactionType transactionType, TransactionResultType transactionResultType, Account account, Long amount) {
+        return buildTransaction(transactionType, transactionResultType, account, amount, LocalDateTime.now());
+    }
+
+    private Transaction buildTransaction(TransactionType transactionType, TransactionResultType transactionResultType, Account account, Long amount, LocalDateTime transactedAt) {
+        return buildTransaction(transactionType, transactionResultType, account, amount, transactedAt, transactionIdGenerator.generate());
+    }
+
+    private Transaction buildTransaction(TransactionType transactionType, TransactionResultType transactionResultType, Account account, Long amount, LocalDateTime transactedAt, String transactionId) {
+        return buildTransaction(transactionType, transactionResultType, account, amount, account.getBalance(), transactedAt, transactionId);
+    }
+
+    private Transaction buildTransaction(TransactionType transactionType, TransactionResultType transactionResultType, Account account, Long amount, Long balanceSnapshot, LocalDateTime transactedAt, String transactionId) {
+        return Transaction.builder()
+                .transactionType(transactionType)
+                .transactionResultType(transactionResultType)
+                .account(account)
+                .amount(amount)
+                .balanceSnapshot(balanceSnapshot)
+                .transactionId(transactionId)
+                .transactedAt(transactedAt)
+                .build();
+    }
+
+    // 한 계좌에 대한 여러 건의 잔액 사용을 계좌 조회 1번, 트랜잭션 1개로 처리한다.
+    // 호출하는 쪽에서 해당 계좌의 lock 을 잡고 있어야 한다.
+    @Timed(value = "account.transaction.service", histogram = true)
+    @OptimisticRetry
+    @Transactional
+    public List<TransactionDto> useBalanceInBatch(String accountNumber, List<UseBalance.Request> requests) {
+        return applyCommands(accountNumber, requests.stream()
+                .map(AccountCommand::use)
+                .collect(Collectors.toList()));
+    }
+
+    // 계좌 대기열에서 꺼낸 사용/취소 명령을 계좌 조회 1번, 트랜잭션 1개로 처리한다.
+    // 실패한 명령은 F 거래로 남기고 errorCode 로 돌려준다. 호출하는 쪽에서 해당 계좌의 lock 을 잡고 있어야 한다.
+    @Timed(value = "account.transaction.service", histogram = true)
+    @OptimisticRetry
     @Transactional
-    public void saveFailedUseTransaction(String accountNumber, Long amount) {
+    public List<TransactionDto> executeCommands(String accountNumber, List<AccountCommand> commands) {
+        return applyCommands(accountNumber, commands);
+    }
+
+    private List<TransactionDto> applyCommands(String accountNumber, List<AccountCommand> commands) {
         Account account = accountRepository.findByAccountNumber(accountNumber)
                 .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
 
-        saveAndGetTransaction(TransactionType.USE, TransactionResultType.F, account, amount);
+        Map<Long, Optional<AccountUser>> users = new HashMap<>();
+        Set<Long> cancelledIds = new HashSet<>();
+        List<Transaction> transactions = new ArrayList<>(commands.size());
+        List<ErrorCode> errorCodes = new ArrayList<>(commands.size());
+        // 엔티티는 고치지 않고 잔액을 따로 계산한다. 더티 체킹으로 덮어쓰지 않고 아래의 조건부 UPDATE 로만 반영한다.
+        long balance = account.getBalance();
+
+        for (AccountCommand command : commands) {
+            try {
+                if (command.getTransactionType() == TransactionType.CANCEL) {
+                    transactions.add(applyCancel(account, command, cancelledIds, balance + command.getAmount()));
+                    balance += command.getAmount();
+                } else {
+                    AccountUser user = users.computeIfAbsent(command.getUserId(), accountUserCache::findById)
+                            .orElseThrow(() -> new AccountException(ErrorCode.USER_NOT_FOUND));
+                    validateUseBalance(user, account, command.getAmount(), balance);
+
+                    balance -= command.getAmount();
+                    transactions.add(buildTransaction(TransactionType.USE, TransactionResultType.S, account,
+                            command.getAmount(), balance, LocalDateTime.now(), transactionIdGenerator.generate()));
+                }
+                errorCodes.add(null);
+            } catch (AccountException e) {
+                transactions.add(buildTransaction(command.getTransactionType(), TransactionResultType.F, account,
+                        command.getAmount(), balance, LocalDateTime.now(), transactionIdGenerator.generate()));
+                errorCodes.add(e.getErrorCode());
+            }
+        }
+
+        long delta = balance - account.getBalance();
+        if (delta != 0 && accountRepository.applyBalanceDelta(
+                account.getId(), delta, account.getVersion(), LocalDateTime.now()) == 0) {
+            throw applyBalanceDeltaFailure(account);
+        }
+
+        List<Transaction> savedTransactions = transactionRepository.saveAll(transactions);
+
+        List<TransactionDto> transactionDtos = new ArrayList<>(savedTransactions.size());
+        for (int i = 0; i < savedTransactions.size(); i++) {
+            TransactionDto transactionDto = TransactionDto.fromEntity(savedTransactions.get(i));
+            transactionDto.setErrorCode(errorCodes.get(i));
+            transactionDtos.add(transactionDto);
+        }
+        return transactionDtos;
     }
 
-    private Transaction saveAndGetTransaction(TransactionType transactionType, TransactionResultType transactionResultType, Account account, Long amount) {
-        return transactionRepository.save(
-                Transaction.builder()
-                        .transactionType(transactionType)
-                        .transactionResultType(transactionResultType)
-                        .account(account)
-                        .amount(amount)
-                        .balanceSnapshot(account.getBalance())
-                        .transactionId(UUID.randomUUID().toString().replace("-", ""))
-                        .transactedAt(LocalDateTime.now())
-                        .build()
-        );
+    // 읽은 뒤 다른 변경이 있었다면 OptimisticRetry 가 묶음 전체를 새 트랜잭션으로 다시 실행한다.
+    // 버전이 그대로인데 0 row 면 재시도해도 같으므로 실제 원인을 돌려준다.
+    private RuntimeException applyBalanceDeltaFailure(Account account) {
+        AccountDetail current = accountRepository.findDetailById(account.getId())
+                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+
+        if (!Objects.equals(current.getVersion(), account.getVersion())) {
+            return new ObjectOptimisticLockingFailureException(Account.class, account.getId());
+        }
+        if (current.getAccountStatus() != AccountStatus.IN_USE) {
+            return new AccountException(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
+        }
+        return new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE);
+    }
+
+    // 원거래 취소 표시는 명령이 실패해도 되돌려지지 않으므로, 실패할 수 있는 단계를 모두 마친 뒤 마지막에 한다.
+    private Transaction applyCancel(Account account, AccountCommand command, Set<Long> cancelledIds,
+                                    long balanceAfterCancel) {
+        // 잔액 반영 UPDATE 는 사용 중인 계좌에만 적용되므로 사용처럼 미리 거절한다.
+        if (account.getAccountStatus() != AccountStatus.IN_USE) {
+            throw new AccountException(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
+        }
+        CancelTarget target = transactionRepository.findCancelTargetByTransactionId(command.getTransactionId())
+                .orElseThrow(() -> cancelTargetNotFound(command.getTransactionId()));
+
+        validateCancelBalance(target, account.getAccountNumber(), command.getAmount());
+        // 같은 묶음 안에서 같은 거래를 두 번 취소하는 경우도 막는다.
+        if (cancelledIds.contains(target.getId())) {
+            throw new AccountException(ErrorCode.TRANSACTION_ALREADY_CANCELLED);
+        }
+
+        Transaction cancelTransaction = buildTransaction(TransactionType.CANCEL, TransactionResultType.S, account,
+                command.getAmount(), balanceAfterCancel, LocalDateTime.now(), transactionIdGenerator.generate());
+        if (transactionRepository.markCancelled(target.getId(), cancelTransaction.getTransactionId()) == 0) {
+            throw new AccountException(ErrorCode.TRANSACTION_ALREADY_CANCELLED);
+        }
+        cancelledIds.add(target.getId());
+
+        return cancelTransaction;
     }
 
+    @Timed(value = "account.transaction.service", histogram = true)
     @Transactional
     public TransactionDto cancelBalance(String transactionId, String accountNumber, Long amount) {
+        CancelTarget target = transactionRepository.findCancelTargetByTransactionId(transactionId)
+                .orElseThrow(() -> cancelTargetNotFound(transactionId));
 
-        Transaction transaction = transactionRepository.findByTransactionId(transactionId)
-                .orElseThrow(() -> new AccountException(ErrorCode.TRANSACTION_NOT_FOUND));
-        Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+        validateCancelBalance(target, accountNumber, amount);
 
-        validateCancelBalance(transaction, account, amount);
+        // 원거래 표시가 동시 취소에 대한 가드다. 먼저 성공한 쪽만 잔액을 복구한다.
+        String cancelTransactionId = transactionIdGenerator.generate();
+        if (transactionRepository.markCancelled(target.getId(), cancelTransactionId) == 0) {
+            throw new AccountException(ErrorCode.TRANSACTION_ALREADY_CANCELLED);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        accountRepository.cancelBalance(target.getAccountId(), amount, now);
 
-        account.cancelBalance(amount);
+        Account account = accountRepository.findById(target.getAccountId())
+                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
 
-        return TransactionDto.fromEntity(saveAndGetTransaction(TransactionType.CANCEL, TransactionResultType.S, account, amount));
+        return TransactionDto.fromEntity(transactionRepository.save(
+                buildTransaction(TransactionType.CANCEL, TransactionResultType.S, account, amount, now, cancelTransactionId)
+        ));
     }
 
-    private void validateCancelBalance(Transaction transaction, Account account, Long amount) {
-        if (!Objects.equals(transaction.getAccount().getId(), account.getId())) {
+    // archive 로 옮겨진 거래는 취소 가능 기간이 지난 거래다.
+    private AccountException cancelTargetNotFound(String transactionId) {
+        if (transactionArchiveRepository.existsByTransactionId(transactionId)) {
+            return new AccountException(ErrorCode.TOO_OLD_ORDER_TO_CANCEL);
+        }
+        return new AccountException(ErrorCode.TRANSACTION_NOT_FOUND);
+    }
+
+    private void validateCancelBalance(CancelTarget target, String accountNumber, Long amount) {
+        if (!Objects.equals(target.getAccountNumber(), accountNumber)) {
+            accountSnapshotCache.findByAccountNumber(accountNumber)
+                    .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
             throw new AccountException(ErrorCode.TRANSACTION_ACCOUNT_UN_MATCH);
         }
-        if (!Objects.equals(transaction.getAmount(), amount)) {
+        if (target.getCancelledByTransactionId() != null) {
+            throw new AccountException(ErrorCode.TRANSACTION_ALREADY_CANCELLED);
+        }
+        if (!Objects.equals(target.getAmount(), amount)) {
             throw new AccountException(ErrorCode.CANCEL_MUST_FULLY);
         }
-        if (transaction.getTransactedAt().isBefore(LocalDateTime.now().minusYears(1))) {
+        if (target.getTransactedAt().isBefore(LocalDateTime.now().minusYears(1))) {
             throw new AccountException(ErrorCode.TOO_OLD_ORDER_TO_CANCEL);
         }
     }
 
     @Transactional
-    public void saveFailedCancelTransaction(String accountNumber, Long amount) {
-        Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+    public void saveFailedTransactions(List<TransactionDto> failedTransactions) {
+        Set<String> accountNumbers = failedTransactions.stream()
+                .map(TransactionDto::getAccountNumber)
+                .collect(Collectors.toSet());
+        Map<String, Account> accounts = accountRepository.findByAccountNumberIn(accountNumbers).stream()
+                .collect(Collectors.toMap(Account::getAccountNumber, Function.identity()));
+
+        List<Transaction> transactions = new ArrayList<>(failedTransactions.size());
+        for (TransactionDto failedTransaction : failedTransactions) {
+            Account account = accounts.get(failedTransaction.getAccountNumber());
+            if (account == null) {
+                log.debug("Skip failed transaction of unknown account : {}", failedTransaction.getAccountNumber());
+                continue;
+            }
+            // 실패 시점의 잔액을 모르면 저장 시점에 읽은 계좌 잔액을 남긴다.
+            Long balanceSnapshot = failedTransaction.getBalanceSnapshot() != null
+                    ? failedTransaction.getBalanceSnapshot()
+                    : account.getBalance();
+            transactions.add(buildTransaction(failedTransaction.getTransactionType(), TransactionResultType.F,
+                    account, failedTransaction.getAmount(), balanceSnapshot,
+                    failedTransaction.getTransactedAt(), transactionIdGenerator.generate()));
+        }
 
-        saveAndGetTransaction(TransactionType.CANCEL, TransactionResultType.F, account, amount);
+        transactionRepository.saveAll(transactions);
     }
 
+    @Timed(value = "account.transaction.service", histogram = true)
     public TransactionDto queryTransaction(String transactionId) {
 
-        return TransactionDto.fromEntity(transactionRepository.findByTransactionId(transactionId)
-                .orElseThrow(() -> new AccountException(ErrorCode.TRANSACTION_NOT_FOUND))
-        );
+        // 보관 기간이 지나 archive 로 옮겨진 거래도 같은 응답으로 조회한다.
+        return transactionRepository.findDtoByTransactionId(transactionId)
+                .or(() -> transactionArchiveRepository.findDtoByTransactionId(transactionId))
+                .orElseThrow(() -> new AccountException(ErrorCode.TRANSACTION_NOT_FOUND));
+    }
+
+    @Timed(value = "account.transaction.service", histogram = true)
+    public TransactionHistory getTransactionHistory(String accountNumber, String cursor, int size,
+                                                    TransactionType transactionType,
+                                                    TransactionResultType resultType) {
+        if (size < 1 || size > MAX_HISTORY_PAGE_SIZE) {
+            throw new AccountException(ErrorCode.INVALID_REQUEST);
+        }
+        AccountSnapshot account = accountSnapshotCache.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+
+        // 다음 페이지 존재 여부는 size + 1 건을 읽어서 판단한다(count 쿼리 없음).
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<TransactionHistoryItem> items;
+        if (cursor == null) {
+            items = transactionRepository.findHistoryFirstPage(
+                    account.getId(), transactionType, resultType, limit);
+        } else {
+            HistoryCursor after = HistoryCursor.decode(cursor);
+            items = transactionRepository.findHistoryPageAfter(
+                    account.getId(), after.transactedAt, after.id, transactionType, resultType, limit);
+        }
+
+        String nextCursor = null;
+        LocalDateTime archivedUntil = null;
+        if (items.size() > size) {
+            items = new ArrayList<>(items.subList(0, size));
+            TransactionHistoryItem last = items.get(size - 1);
+            nextCursor = HistoryCursor.encode(last.getTransactedAt(), last.getId());
+        } else {
+            // 마지막 페이지에서만 archive 로 옮겨져 목록에 없는 구간을 알려준다. 전체 원장은 export 로 받는다.
+            archivedUntil = transactionArchiveRepository.findLastTransactedAt(account.getId()).orElse(null);
+        }
+
+        return TransactionHistory.builder()
+                .accountNumber(accountNumber)
+                .transactions(items)
+                .nextCursor(nextCursor)
+                .archivedUntil(archivedUntil)
+                .build();
+    }
+
+    @Timed(value = "account.transaction.service", histogram = true)
+    public HistoricalBalance getBalanceAt(String accountNumber, LocalDateTime at) {
+        AccountSnapshot account = accountSnapshotCache.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+        PageRequest first = PageRequest.of(0, 1);
+
+        List<Long> snapshots = transactionRepository.findBalanceSnapshotsAtOrBefore(account.getId(), at, first);
+        if (snapshots.isEmpty()) {
+            snapshots = transactionArchiveRepository.findBalanceSnapshotsAtOrBefore(account.getId(), at, first);
+        }
+        if (!snapshots.isEmpty()) {
+            return historicalBalance(accountNumber, snapshots.get(0), at);
+        }
+
+        // at 이전 거래가 없으면 at 이후 첫 거래의 잔액에서 그 거래만 되돌린다. 거래가 아예 없으면 현재 잔액이다.
+        AccountDetail detail = accountRepository.findDetailById(account.getId())
+                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+        if (detail.getRegisteredAt() != null && detail.getRegisteredAt().isAfter(at)) {
+            throw new AccountException(ErrorCode.INVALID_REQUEST);
+        }
+
+        // archive 에 있는 거래가 항상 더 오래됐으므로 archive 를 먼저 본다.
+        List<TransactionHistoryItem> after = transactionArchiveRepository.findSucceededAfter(account.getId(), at, first);
+        if (after.isEmpty()) {
+            after = transactionRepository.findSucceededAfter(account.getId(), at, first);
+        }
+        if (after.isEmpty()) {
+            return historicalBalance(accountNumber, detail.getBalance(), at);
+        }
+        TransactionHistoryItem next = after.get(0);
+        long balance = next.getTransactionType() == TransactionType.USE
+                ? next.getBalanceSnapshot() + next.getAmount()
+                : next.getBalanceSnapshot() - next.getAmount();
+        return historicalBalance(accountNumber, balance, at);
+    }
+
+    private HistoricalBalance historicalBalance(String accountNumber, Long balance, LocalDateTime at) {
+        return HistoricalBalance.builder()
+                .accountNumber(accountNumber)
+                .balance(balance)
+                .at(at)
+                .build();
+    }
+
+    // (transactedAt, id) 를 불투명한 문자열로 주고받는다.
+    private static class HistoryCursor {
+        private final LocalDateTime transactedAt;
+        private final Long id;
+
+        private HistoryCursor(LocalDateTime transactedAt, Long id) {
+            this.transactedAt = transactedAt;
+            this.id = id;
+        }
+
+        static String encode(LocalDateTime transactedAt, Long id) {
+            String raw = transactedAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static HistoryCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                if (separator < 0) {
+                    throw new AccountException(ErrorCode.INVALID_REQUEST);
+                }
+                return new HistoryCursor(
+                        LocalDateTime.parse(raw.substring(0, separator)),
+                        Long.parseLong(raw.substring(separator + 1)));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                throw new AccountException(ErrorCode.INVALID_REQUEST);
+            }
+        }
     }
 }
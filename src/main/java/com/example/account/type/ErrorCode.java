@@ -20,7 +20,11 @@ public enum ErrorCode {
     USER_ACCOUNT_UN_MATCH("사용자와 계좌 소유주가 다릅니다."),
     CANCEL_MUST_FULLY("부분 취소는 허용되지 않습니다."),
     TOO_OLD_ORDER_TO_CANCEL("너무 오래된 거래내역 입니다(1년 이상)."),
-    TRANSACTION_ACCOUNT_UN_MATCH("이 거래는 해당 계좌에서 발생한 거래가 아닙니다.");
+    TRANSACTION_ACCOUNT_UN_MATCH("이 거래는 해당 계좌에서 발생한 거래가 아닙니다."),
+    IDEMPOTENT_REQUEST_IN_PROGRESS("같은 Idempotency-Key 의 요청이 처리 중입니다."),
+    IDEMPOTENCY_KEY_REUSED("같은 Idempotency-Key 로 다른 내용의 요청을 보냈습니다."),
+    TRANSACTION_ALREADY_CANCELLED("이미 취소된 거래입니다."),
+    TOO_MANY_PENDING_COMMANDS("처리 대기 중인 요청이 많습니다. 잠시 후 다시 시도해 주세요.");
 
     private final String description;
 }
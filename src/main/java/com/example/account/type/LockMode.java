@@ -0,0 +1,7 @@
+package com.example.account.type;
+
+public enum LockMode {
+    REDIS,
+    LOCAL_THEN_REDIS,
+    OPTIMISTIC
+}
@@ -0,0 +1,46 @@
+package com.example.account.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QueryCountInterceptorTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final QueryCountInterceptor interceptor = new QueryCountInterceptor(meterRegistry);
+    private final QueryCountInspector inspector = new QueryCountInspector();
+
+    @Test
+    void countQueriesOfAsyncRequestOnce() throws Exception {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/transaction/use");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/transaction/use");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        interceptor.preHandle(request, response, null);
+        inspector.inspect("select account");
+        Runnable executorTask = QueryCountInspector.propagate(() -> inspector.inspect("update account"));
+        interceptor.afterConcurrentHandlingStarted(request, response, null);
+        // 서블릿 스레드가 다른 요청을 처리하는 동안 실행된 쿼리는 세지 않는다.
+        inspector.inspect("select other");
+        Thread executorThread = new Thread(executorTask);
+        executorThread.start();
+        executorThread.join();
+        // 결과를 쓰는 재디스패치
+        interceptor.preHandle(request, response, null);
+        interceptor.afterCompletion(request, response, null, null);
+
+        // then
+        DistributionSummary summary = meterRegistry.get("account.db.queries")
+                .tag("uri", "/transaction/use")
+                .summary();
+        assertEquals(1, summary.count());
+        assertEquals(2, summary.totalAmount());
+        assertEquals(-1, QueryCountInspector.finish());
+    }
+}
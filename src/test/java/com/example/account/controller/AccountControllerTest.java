@@ -1,6 +1,6 @@
 package com.example.account.controller;
 
-import com.example.account.domain.Account;
+import com.example.account.dto.AccountDetail;
 import com.example.account.dto.AccountDto;
 import com.example.account.dto.CreateAccount;
 import com.example.account.dto.DeleteAccount;
@@ -25,6 +25,8 @@ import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -67,9 +69,11 @@ class AccountControllerTest {
     void successGetAccount() throws Exception {
         //given
         given(accountService.getAccount(anyLong()))
-                .willReturn(Account.builder()
+                .willReturn(AccountDetail.builder()
+                        .id(876L)
                         .accountNumber("3456")
                         .accountStatus(AccountStatus.IN_USE)
+                        .version(3L)
                         .build());
 
         //when
@@ -78,9 +82,31 @@ class AccountControllerTest {
                 .andDo(print())
                 .andExpect(jsonPath("$.accountNumber").value("3456"))
                 .andExpect(jsonPath("$.accountStatus").value("IN_USE"))
+                .andExpect(jsonPath("$.version").doesNotExist())
+                .andExpect(header().string("ETag", "\"876-3\""))
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void getAccountNotModified() throws Exception {
+        //given
+        given(accountService.getAccount(anyLong()))
+                .willReturn(AccountDetail.builder()
+                        .id(876L)
+                        .accountNumber("3456")
+                        .accountStatus(AccountStatus.IN_USE)
+                        .version(3L)
+                        .build());
+
+        //when
+        //then
+        mockMvc.perform(get("/account/876")
+                        .header("If-None-Match", "\"876-3\""))
+                .andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
     @Test
     void successDeleteAccount() throws Exception {
         // given
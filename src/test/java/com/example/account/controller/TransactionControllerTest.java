@@ -3,7 +3,12 @@ package com.example.account.controller;
 import com.example.account.domain.Account;
 import com.example.account.dto.*;
 import com.example.account.service.AccountService;
+import com.example.account.service.FailedTransactionWriter;
+import com.example.account.service.TransactionBatchService;
+import com.example.account.service.TransactionCommandService;
+import com.example.account.service.TransactionExportService;
 import com.example.account.service.TransactionService;
+import com.example.account.type.ErrorCode;
 import com.example.account.type.AccountStatus;
 import com.example.account.type.TransactionResultType;
 import com.example.account.type.TransactionType;
@@ -12,26 +17,47 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@WebMvcTest(TransactionController.class)
+@WebMvcTest({TransactionController.class, TransactionCommandController.class})
+@Import(TransactionCommandService.class)
 class TransactionControllerTest {
     @MockBean
     private TransactionService transactionService;
 
+    @MockBean
+    private TransactionBatchService transactionBatchService;
+
+    @MockBean
+    private FailedTransactionWriter failedTransactionWriter;
+
+    @MockBean
+    private TransactionExportService transactionExportService;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -66,6 +92,43 @@ class TransactionControllerTest {
                 .andExpect(jsonPath("$.amount").value(12345));
     }
 
+    @Test
+        //@DisplayName("")
+    void successUseBalanceBatch() throws Exception {
+        // given
+        given(transactionBatchService.useBalanceBatch(anyList()))
+                .willReturn(Arrays.asList(
+                        TransactionDto.builder()
+                                .accountNumber("1234567890")
+                                .transactedAt(LocalDateTime.now())
+                                .amount(1000L)
+                                .transactionId("transactionId")
+                                .transactionResultType(TransactionResultType.S)
+                                .build(),
+                        TransactionDto.builder()
+                                .accountNumber("1234567890")
+                                .amount(2000L)
+                                .transactionResultType(TransactionResultType.F)
+                                .errorCode(ErrorCode.AMOUNT_EXCEED_BALANCE)
+                                .build()));
+        // when
+
+        // then
+        mockMvc.perform(post("/transaction/use/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new UseBalanceBatch.Request(Arrays.asList(
+                                        new UseBalance.Request(1L, "1234567890", 1000L),
+                                        new UseBalance.Request(1L, "1234567890", 2000L)))
+                        ))
+                ).andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].transactionResultType").value("S"))
+                .andExpect(jsonPath("$.results[0].transactionId").value("transactionId"))
+                .andExpect(jsonPath("$.results[1].transactionResultType").value("F"))
+                .andExpect(jsonPath("$.results[1].errorCode").value("AMOUNT_EXCEED_BALANCE"));
+    }
+
     @Test
     void successCancelBalance() throws Exception {
         // given
@@ -120,4 +183,68 @@ class TransactionControllerTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+        //@DisplayName("")
+    void successGetTransactionHistory() throws Exception {
+        // given
+        given(transactionService.getTransactionHistory(anyString(), isNull(), anyInt(),
+                eq(TransactionType.USE), isNull()))
+                .willReturn(TransactionHistory.builder()
+                        .accountNumber("1234567890")
+                        .transactions(Arrays.asList(TransactionHistoryItem.builder()
+                                .id(1L)
+                                .transactionId("transactionId")
+                                .transactionType(TransactionType.USE)
+                                .transactionResultType(TransactionResultType.S)
+                                .amount(1000L)
+                                .balanceSnapshot(9000L)
+                                .transactedAt(LocalDateTime.now())
+                                .build()))
+                        .nextCursor("nextCursor")
+                        .build());
+        // when
+        // then
+        mockMvc.perform(get("/account/1234567890/transactions?transaction_type=USE&size=1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accountNumber").value("1234567890"))
+                .andExpect(jsonPath("$.transactions[0].transactionId").value("transactionId"))
+                .andExpect(jsonPath("$.transactions[0].balanceSnapshot").value(9000))
+                .andExpect(jsonPath("$.transactions[0].id").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").value("nextCursor"));
+    }
+
+    @Test
+    void successGetBalanceAt() throws Exception {
+        // given
+        given(transactionService.getBalanceAt(anyString(), any()))
+                .willReturn(HistoricalBalance.builder()
+                        .accountNumber("1234567890")
+                        .balance(9000L)
+                        .at(LocalDateTime.of(2022, 6, 1, 10, 0))
+                        .build());
+        // when
+        // then
+        mockMvc.perform(get("/account/1234567890/balance?at=2022-06-01T10:00:00"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accountNumber").value("1234567890"))
+                .andExpect(jsonPath("$.balance").value(9000));
+    }
+
+    @Test
+        //@DisplayName("")
+    void exportTransactionsWithExportTimeout() throws Exception {
+        // given
+        given(transactionExportService.exportLedger(anyString(), any(), any(), any()))
+                .willReturn(outputStream -> outputStream.write("header\n".getBytes(StandardCharsets.UTF_8)));
+        // when
+        MvcResult result = mockMvc.perform(get("/account/1000000012/transactions/export")
+                        .param("from", "2022-06-01")
+                        .param("to", "2022-06-30"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // then
+        assertEquals(Duration.ofMinutes(10).toMillis(), result.getRequest().getAsyncContext().getTimeout());
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.account.repository;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.AccountUser;
+import com.example.account.domain.Transaction;
+import com.example.account.dto.AccountDetail;
+import com.example.account.dto.AccountDto;
+import com.example.account.dto.TransactionDto;
+import com.example.account.service.*;
+import com.example.account.type.AccountStatus;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.BDDMockito.given;
+
+// 엔드포인트가 호출하는 서비스 메서드별로 실행되는 SQL 수를 고정한다.
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({AccountService.class, TransactionService.class, AccountUserCache.class, AccountSnapshotCache.class,
+        TimeOrderedTransactionIdGenerator.class, SimpleMeterRegistry.class})
+class QueryCountTest {
+    @MockBean
+    private AccountNumberAllocator accountNumberAllocator;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountUserCache accountUserCache;
+
+    @Autowired
+    private AccountSnapshotCache accountSnapshotCache;
+
+    private QueryCounter queryCounter;
+
+    @BeforeEach
+    void setUp() {
+        // data.sql 로 들어간 사용자를 사용한다.
+        AccountUser user = testEntityManager.find(AccountUser.class, 1L);
+        Account account = testEntityManager.persist(Account.builder()
+                .accountUser(user)
+                .accountNumber("1000000000")
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10000L)
+                .registeredAt(LocalDateTime.now())
+                .build());
+        testEntityManager.persist(Transaction.builder()
+                .account(account)
+                .transactionType(TransactionType.USE)
+                .transactionResultType(TransactionResultType.S)
+                .transactionId("transactionId")
+                .amount(1000L)
+                .balanceSnapshot(9000L)
+                .transactedAt(LocalDateTime.now())
+                .build());
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        queryCounter = new QueryCounter(entityManagerFactory);
+        queryCounter.clear();
+    }
+
+    @Test
+    void queryTransactionRunsSingleQuery() {
+        // given
+        // when
+        TransactionDto transactionDto = transactionService.queryTransaction("transactionId");
+        // then
+        assertEquals("1000000000", transactionDto.getAccountNumber());
+        assertEquals(1, queryCounter.getStatementCount());
+        assertEquals(0, queryCounter.getLoadCount(Transaction.class));
+        assertEquals(0, queryCounter.getLoadCount(Account.class));
+    }
+
+    @Test
+    void getAccountsByUserIdRunsUserAndAccountQueries() {
+        // given
+        // when
+        List<AccountDto> accountDtos = accountService.getAccountsByUserId(1L);
+        // then
+        assertEquals(1, accountDtos.size());
+        assertEquals(1L, accountDtos.get(0).getUserId());
+        assertEquals(2, queryCounter.getStatementCount());
+        assertEquals(0, queryCounter.getLoadCount(Account.class));
+    }
+
+    @Test
+    void getAccountRunsSingleQuery() {
+        // given
+        Long accountId = testEntityManager.getEntityManager()
+                .createQuery("select a.id from Account a where a.accountNumber = '1000000000'", Long.class)
+                .getSingleResult();
+        queryCounter.clear();
+        // when
+        AccountDetail accountDetail = accountService.getAccount(accountId);
+        // then
+        assertEquals(10000L, accountDetail.getBalance());
+        assertEquals(1, queryCounter.getStatementCount());
+        assertEquals(0, queryCounter.getLoadCount(Account.class));
+    }
+
+    @Test
+    void cancelBalanceUsesSingleLookupAndConditionalUpdate() {
+        // given
+        // when
+        TransactionDto cancelled = transactionService.cancelBalance("transactionId", "1000000000", 1000L);
+        // then
+        assertEquals(0, queryCounter.getLoadCount(Transaction.class));
+        assertEquals(1, queryCounter.getLoadCount(Account.class));
+        assertEquals(0, queryCounter.getLoadCount(AccountUser.class));
+        assertEquals(11000L, cancelled.getBalanceSnapshot());
+        assertEquals(cancelled.getTransactionId(), testEntityManager.getEntityManager()
+                .createQuery("select t.cancelledByTransactionId from Transaction t " +
+                        "where t.transactionId = 'transactionId'", String.class)
+                .getSingleResult());
+    }
+
+    @Test
+    void createAccountChecksLimitWithSingleCountQuery() {
+        // given
+        given(accountNumberAllocator.next()).willReturn("1000000001");
+        // when
+        AccountDto accountDto = accountService.createAccount(1L, 1000L);
+        // then
+        assertEquals("1000000001", accountDto.getAccountNumber());
+        // 계좌 수 확인은 count 한 번뿐이고, 사용자의 계좌 목록은 읽지 않는다.
+        assertEquals(1, queryCounter.getQueryExecutionCount());
+        assertEquals(0, queryCounter.getLoadCount(Account.class));
+    }
+
+    @Test
+    void useBalanceValidatesFromWarmCaches() {
+        // given
+        accountUserCache.evictAll();
+        accountSnapshotCache.evictAll();
+        transactionService.useBalance(1L, "1000000000", 1000L);
+        testEntityManager.flush();
+        // 캐시가 비어 있으면 사용자와 검증용 계좌를 한 번씩 더 읽는다.
+        assertEquals(1, queryCounter.getLoadCount(AccountUser.class));
+        assertEquals(2, queryCounter.getLoadCount(Account.class));
+        queryCounter.clear();
+        // when
+        TransactionDto transactionDto = transactionService.useBalance(1L, "1000000000", 1000L);
+        testEntityManager.flush();
+        // then
+        // 소유주/상태 검증은 캐시로 끝나고, 응답을 만들기 위한 차감 후 계좌 조회만 남는다.
+        assertEquals(8000L, transactionDto.getBalanceSnapshot());
+        assertEquals(0, queryCounter.getLoadCount(AccountUser.class));
+        assertEquals(1, queryCounter.getLoadCount(Account.class));
+    }
+}
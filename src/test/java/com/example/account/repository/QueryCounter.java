@@ -0,0 +1,33 @@
+package com.example.account.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import javax.persistence.EntityManagerFactory;
+
+// Hibernate Statistics 로 실행된 SQL 수와 엔티티 로딩 수를 센다.
+// hibernate.generate_statistics 가 켜져 있어야 한다.
+class QueryCounter {
+    private final Statistics statistics;
+
+    QueryCounter(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    void clear() {
+        statistics.clear();
+    }
+
+    long getStatementCount() {
+        return statistics.getPrepareStatementCount();
+    }
+
+    // JPQL/Criteria 쿼리 실행 수. em.find 나 시퀀스 조회는 포함되지 않는다.
+    long getQueryExecutionCount() {
+        return statistics.getQueryExecutionCount();
+    }
+
+    long getLoadCount(Class<?> entityClass) {
+        return statistics.getEntityStatistics(entityClass.getName()).getLoadCount();
+    }
+}
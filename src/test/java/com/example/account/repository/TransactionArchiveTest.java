@@ -0,0 +1,90 @@
+package com.example.account.repository;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.AccountUser;
+import com.example.account.domain.Transaction;
+import com.example.account.dto.TransactionDto;
+import com.example.account.service.TransactionArchiver;
+import com.example.account.type.AccountStatus;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+@DataJpaTest(properties = "account.archive.batch-size=1")
+@Import(TransactionArchiver.class)
+class TransactionArchiveTest {
+    @MockBean
+    private RedissonClient redissonClient;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionArchiveRepository transactionArchiveRepository;
+
+    @Autowired
+    private TransactionArchiver transactionArchiver;
+
+    @Test
+    void moveOnlyTransactionsOlderThanHorizon() {
+        // given
+        RLock lock = mock(RLock.class);
+        given(redissonClient.getLock(anyString()))
+                .willReturn(lock);
+        given(lock.tryLock())
+                .willReturn(true);
+
+        AccountUser user = testEntityManager.find(AccountUser.class, 1L);
+        Account account = testEntityManager.persist(Account.builder()
+                .accountUser(user)
+                .accountNumber("1000000000")
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10000L)
+                .registeredAt(LocalDateTime.now().minusYears(3))
+                .build());
+        testEntityManager.persist(transaction(account, "old1", LocalDateTime.now().minusYears(2)));
+        testEntityManager.persist(transaction(account, "old2", LocalDateTime.now().minusYears(2).plusDays(1)));
+        testEntityManager.persist(transaction(account, "recent", LocalDateTime.now().minusDays(1)));
+        testEntityManager.flush();
+        testEntityManager.clear();
+        // when
+        transactionArchiver.archive();
+        // then
+        assertEquals(1, transactionRepository.count());
+        assertTrue(transactionRepository.findByTransactionId("recent").isPresent());
+        assertEquals(2, transactionArchiveRepository.count());
+        TransactionDto archived = transactionArchiveRepository.findDtoByTransactionId("old1").get();
+        assertEquals("1000000000", archived.getAccountNumber());
+        assertEquals(1000L, archived.getAmount());
+    }
+
+    private Transaction transaction(Account account, String transactionId, LocalDateTime transactedAt) {
+        return Transaction.builder()
+                .account(account)
+                .transactionType(TransactionType.USE)
+                .transactionResultType(TransactionResultType.S)
+                .transactionId(transactionId)
+                .amount(1000L)
+                .balanceSnapshot(9000L)
+                .transactedAt(transactedAt)
+                .build();
+    }
+}
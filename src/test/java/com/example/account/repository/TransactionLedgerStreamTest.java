@@ -0,0 +1,93 @@
+package com.example.account.repository;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.AccountUser;
+import com.example.account.domain.Transaction;
+import com.example.account.dto.TransactionHistoryItem;
+import com.example.account.type.AccountStatus;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 원장 export 가 H2 에서 실제로 커서로 읽히고, 읽은 행이 영속성 컨텍스트에 쌓이지 않는지 확인한다.
+@DataJpaTest
+class TransactionLedgerStreamTest {
+    private static final int ROWS = 20_000;
+    private static final int OUT_OF_RANGE_ROWS = 500;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Test
+    void streamLedgerWithoutLoadingEntities() {
+        // given
+        AccountUser user = testEntityManager.find(AccountUser.class, 1L);
+        Account account = testEntityManager.persist(Account.builder()
+                .accountUser(user)
+                .accountNumber("1000000000")
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10000L)
+                .registeredAt(LocalDateTime.of(2021, 1, 1, 0, 0))
+                .build());
+        LocalDateTime from = LocalDateTime.of(2022, 1, 1, 0, 0);
+        for (int i = 0; i < ROWS + OUT_OF_RANGE_ROWS; i++) {
+            // 범위 밖 행은 from 이전에 둔다.
+            LocalDateTime transactedAt = i < ROWS ? from.plusSeconds(i) : from.minusSeconds(i);
+            testEntityManager.persist(transaction(account, "trx" + i, transactedAt));
+            if (i % 1000 == 999) {
+                testEntityManager.flush();
+                testEntityManager.clear();
+            }
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+        Session session = testEntityManager.getEntityManager().unwrap(Session.class);
+
+        // when
+        long rows = 0;
+        boolean ordered = true;
+        try (Stream<TransactionHistoryItem> ledger =
+                     transactionRepository.streamLedger(account.getId(), from, from.plusYears(1))) {
+            LocalDateTime previous = null;
+            Iterator<TransactionHistoryItem> iterator = ledger.iterator();
+            while (iterator.hasNext()) {
+                TransactionHistoryItem item = iterator.next();
+                if (previous != null && item.getTransactedAt().isBefore(previous)) {
+                    ordered = false;
+                }
+                previous = item.getTransactedAt();
+                rows++;
+            }
+            // then
+            assertEquals(0, session.getStatistics().getEntityCount());
+        }
+        assertEquals(ROWS, rows);
+        assertTrue(ordered);
+    }
+
+    private Transaction transaction(Account account, String transactionId, LocalDateTime transactedAt) {
+        return Transaction.builder()
+                .account(account)
+                .transactionType(TransactionType.USE)
+                .transactionResultType(TransactionResultType.S)
+                .transactionId(transactionId)
+                .amount(1000L)
+                .balanceSnapshot(9000L)
+                .transactedAt(transactedAt)
+                .build();
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.account.service;
+
+import com.example.account.config.QueryCountInspector;
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountCommandExecutorTest {
+    private AccountCommandExecutor accountCommandExecutor;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        accountCommandExecutor.shutdown();
+    }
+
+    @Test
+    void runCommandsOfSameAccountOneAtATime() throws Exception {
+        // given
+        accountCommandExecutor = new AccountCommandExecutor(new SimpleMeterRegistry(), runnable -> runnable, 8, 1000, 1000);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Integer> order = new ArrayList<>();
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        // when
+        for (int i = 0; i < 200; i++) {
+            int sequence = i;
+            futures.add(accountCommandExecutor.submit("1000000000", () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                order.add(sequence);
+                running.decrementAndGet();
+                return sequence;
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        // then
+        assertEquals(1, maxRunning.get());
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i, order.get(i));
+        }
+    }
+
+    @Test
+    void hotAccountDoesNotBlockOtherAccounts() throws Exception {
+        // given
+        accountCommandExecutor = new AccountCommandExecutor(new SimpleMeterRegistry(), runnable -> runnable, 2, 1000, 1000);
+        CountDownLatch release = new CountDownLatch(1);
+        accountCommandExecutor.submit("1000000000", () -> {
+            await(release);
+            return null;
+        });
+        for (int i = 0; i < 100; i++) {
+            accountCommandExecutor.submit("1000000000", () -> null);
+        }
+        // when
+        CompletableFuture<String> other = accountCommandExecutor.submit("1000000001", () -> "done");
+        // then
+        assertEquals("done", other.get(5, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    @Test
+    void rejectWhenAccountQueueIsFull() {
+        // given
+        accountCommandExecutor = new AccountCommandExecutor(new SimpleMeterRegistry(), runnable -> runnable, 1, 1000, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        accountCommandExecutor.submit("1000000000", () -> {
+            await(release);
+            return null;
+        });
+        accountCommandExecutor.submit("1000000000", () -> null);
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> accountCommandExecutor.submit("1000000000", () -> null));
+        // then
+        assertEquals(ErrorCode.TOO_MANY_PENDING_COMMANDS, exception.getErrorCode());
+        release.countDown();
+    }
+
+    @Test
+    void rejectWhenTooManyPending() {
+        // given
+        accountCommandExecutor = new AccountCommandExecutor(new SimpleMeterRegistry(), runnable -> runnable, 1, 2, 1000);
+        CountDownLatch release = new CountDownLatch(1);
+        accountCommandExecutor.submit("1000000000", () -> {
+            await(release);
+            return null;
+        });
+        accountCommandExecutor.submit("1000000001", () -> null);
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> accountCommandExecutor.submit("1000000002", () -> null));
+        // then
+        assertEquals(ErrorCode.TOO_MANY_PENDING_COMMANDS, exception.getErrorCode());
+        release.countDown();
+    }
+
+    @Test
+    void countQueriesOfSubmittingRequestOnExecutorThread() throws Exception {
+        // given
+        accountCommandExecutor = new AccountCommandExecutor(new SimpleMeterRegistry(),
+                QueryCountInspector::propagate, 1, 1000, 1000);
+        QueryCountInspector inspector = new QueryCountInspector();
+        AtomicInteger count = QueryCountInspector.start();
+        // when
+        accountCommandExecutor.submit("1000000000", () -> {
+            inspector.inspect("select 1");
+            return inspector.inspect("select 2");
+        }).get(10, TimeUnit.SECONDS);
+        QueryCountInspector.detach();
+        accountCommandExecutor.submit("1000000000", () -> inspector.inspect("select 3"))
+                .get(10, TimeUnit.SECONDS);
+        // then
+        assertEquals(2, count.get());
+        assertEquals(-1, QueryCountInspector.finish());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.account.service;
+
+import com.example.account.dto.AccountCommand;
+import com.example.account.dto.TransactionDto;
+import com.example.account.dto.UseBalance;
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AccountCommandMailboxTest {
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private LockService lockService;
+
+    @Mock
+    private FailedTransactionWriter failedTransactionWriter;
+
+    private AccountCommandExecutor accountCommandExecutor;
+
+    private AccountCommandMailbox accountCommandMailbox;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        accountCommandExecutor = new AccountCommandExecutor(meterRegistry, runnable -> runnable, 4, 1000, 1000);
+        accountCommandMailbox = new AccountCommandMailbox(accountCommandExecutor, transactionService,
+                lockService, failedTransactionWriter, meterRegistry, 1000, 1000, 100);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        accountCommandExecutor.shutdown();
+    }
+
+    @Test
+    void batchCommandsQueuedWhileBusy() throws Exception {
+        // given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> batchSizes = new ArrayList<>();
+        given(transactionService.executeCommands(anyString(), anyList()))
+                .willAnswer(invocation -> {
+                    List<AccountCommand> commands = invocation.getArgument(1);
+                    batchSizes.add(commands.size());
+                    started.countDown();
+                    release.await(10, TimeUnit.SECONDS);
+                    return commands.stream()
+                            .map(command -> success(command.getAmount()))
+                            .collect(Collectors.toList());
+                });
+        // when
+        List<CompletableFuture<TransactionDto>> futures = new ArrayList<>();
+        futures.add(accountCommandMailbox.submit("1000000000", use(10L)));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 50; i++) {
+            futures.add(accountCommandMailbox.submit("1000000000", use(10L)));
+        }
+        release.countDown();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        // then
+        assertEquals(2, batchSizes.size());
+        assertEquals(1, batchSizes.get(0));
+        assertEquals(50, batchSizes.get(1));
+        verify(lockService, times(2)).lock("1000000000");
+        verify(lockService, times(2)).unlock("1000000000");
+    }
+
+    @Test
+    void failOnlyTheFailedCommand() throws Exception {
+        // given
+        TransactionDto failed = success(20L);
+        failed.setTransactionResultType(TransactionResultType.F);
+        failed.setErrorCode(ErrorCode.AMOUNT_EXCEED_BALANCE);
+        given(transactionService.executeCommands(anyString(), anyList()))
+                .willAnswer(invocation -> {
+                    List<AccountCommand> commands = invocation.getArgument(1);
+                    return commands.stream()
+                            .map(command -> command.getAmount() == 20L ? failed : success(command.getAmount()))
+                            .collect(Collectors.toList());
+                });
+        // when
+        CompletableFuture<TransactionDto> future = accountCommandMailbox.submit("1000000000", use(20L));
+        // then
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> future.get(5, TimeUnit.SECONDS));
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, ((AccountException) exception.getCause()).getErrorCode());
+    }
+
+    @Test
+    void saveFailedTransactionsWhenBatchFails() {
+        // given
+        given(transactionService.executeCommands(anyString(), anyList()))
+                .willThrow(new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+        // when
+        CompletableFuture<TransactionDto> future = accountCommandMailbox.submit("1000000000", use(10L));
+        // then
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> future.get(5, TimeUnit.SECONDS));
+        assertEquals(ErrorCode.ACCOUNT_NOT_FOUND, ((AccountException) exception.getCause()).getErrorCode());
+        verify(failedTransactionWriter, times(1)).enqueue(TransactionType.USE, "1000000000", 10L);
+    }
+
+    private AccountCommand use(Long amount) {
+        return AccountCommand.use(new UseBalance.Request(1L, "1000000000", amount));
+    }
+
+    private TransactionDto success(Long amount) {
+        return TransactionDto.builder()
+                .accountNumber("1000000000")
+                .transactionType(TransactionType.USE)
+                .transactionResultType(TransactionResultType.S)
+                .amount(amount)
+                .build();
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.account.service;
+
+import com.example.account.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RAtomicLong;
+import org.redisson.api.RedissonClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class AccountNumberAllocatorTest {
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RAtomicLong rAtomicLong;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @InjectMocks
+    private AccountNumberAllocator accountNumberAllocator;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private void givenSequence() {
+        given(redissonClient.getAtomicLong(anyString()))
+                .willReturn(rAtomicLong);
+        given(rAtomicLong.compareAndSet(anyLong(), anyLong()))
+                .willAnswer(invocation -> sequence.compareAndSet(
+                        invocation.getArgument(0), invocation.getArgument(1)));
+        given(rAtomicLong.addAndGet(anyLong()))
+                .willAnswer(invocation -> sequence.addAndGet(invocation.getArgument(0)));
+    }
+
+    @Test
+    void firstAccountNumber() {
+        // given
+        givenSequence();
+        given(accountRepository.findMaxAccountNumber())
+                .willReturn(Optional.empty());
+        // when
+        // then
+        assertEquals("1000000000", accountNumberAllocator.next());
+        assertEquals("1000000001", accountNumberAllocator.next());
+    }
+
+    @Test
+    void continueFromLastAccountNumber() {
+        // given
+        givenSequence();
+        given(accountRepository.findMaxAccountNumber())
+                .willReturn(Optional.of("1000000012"));
+        // when
+        // then
+        assertEquals("1000100013", accountNumberAllocator.next());
+    }
+
+    @Test
+    void reseedWhenSequenceIsLostWhileRunning() {
+        // given
+        givenSequence();
+        given(accountRepository.findMaxAccountNumber())
+                .willReturn(Optional.empty(), Optional.of("1000000150"));
+        for (int i = 0; i < 100; i++) {
+            accountNumberAllocator.next();
+        }
+        // when
+        sequence.set(0);
+        // then
+        assertEquals("1000100151", accountNumberAllocator.next());
+    }
+
+    @Test
+    void reseedSkipsBlocksHeldByOtherNodes() {
+        // given
+        givenSequence();
+        given(accountRepository.findMaxAccountNumber())
+                .willReturn(Optional.empty(), Optional.of("1000000000"));
+        AccountNumberAllocator otherNode = new AccountNumberAllocator(redissonClient, accountRepository);
+        // 다른 노드가 [1000000000, 1000000099] 구간을 예약하고 한 번만 발급했다.
+        assertEquals("1000000000", otherNode.next());
+        // when
+        sequence.set(0);
+        long issued = Long.parseLong(accountNumberAllocator.next());
+        // then
+        assertTrue(issued > 1000000099L);
+        assertEquals("1000000001", otherNode.next());
+    }
+
+    @Test
+    void noCollisionUnderConcurrentCreation() throws Exception {
+        // given
+        givenSequence();
+        given(accountRepository.findMaxAccountNumber())
+                .willReturn(Optional.empty());
+
+        int threads = 64;
+        int accounts = 100_000;
+        Set<String> accountNumbers = ConcurrentHashMap.newKeySet();
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < threads; i++) {
+            int count = accounts / threads + (i < accounts % threads ? 1 : 0);
+            futures.add(executorService.submit(() -> {
+                start.await();
+                for (int j = 0; j < count; j++) {
+                    accountNumbers.add(accountNumberAllocator.next());
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executorService.shutdown();
+
+        // then
+        assertEquals(accounts, accountNumbers.size());
+        assertTrue(accountNumbers.contains("1000000000"));
+        assertTrue(accountNumbers.stream().allMatch(number -> number.length() == 10));
+    }
+}
@@ -5,7 +5,6 @@ import com.example.account.domain.AccountUser;
 import com.example.account.dto.AccountDto;
 import com.example.account.exception.AccountException;
 import com.example.account.repository.AccountRepository;
-import com.example.account.repository.AccountUserRepository;
 import com.example.account.service.AccountService;
 import com.example.account.type.AccountStatus;
 import com.example.account.type.ErrorCode;
@@ -21,6 +20,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -35,7 +35,11 @@ class AccountServiceTest {
     @Mock
     private AccountRepository accountRepository;
     @Mock
-    private AccountUserRepository accountUserRepository;
+    private AccountUserCache accountUserCache;
+    @Mock
+    private AccountNumberAllocator accountNumberAllocator;
+    @Mock
+    private AccountSnapshotCache accountSnapshotCache;
     @InjectMocks
     private AccountService accountService;
 
@@ -46,12 +50,10 @@ class AccountServiceTest {
         AccountUser user = AccountUser.builder()
                 .id(12L)
                 .name("Pobi").build();
-        given(accountUserRepository.findById(anyLong()))
+        given(accountUserCache.findById(anyLong()))
                 .willReturn(Optional.of(user));
-        given(accountRepository.findFirstByOrderByIdDesc())
-                .willReturn(Optional.of(Account.builder()
-                        .accountUser(user)
-                        .accountNumber("1000000012").build()));
+        given(accountNumberAllocator.next())
+                .willReturn("1000000013");
         given(accountRepository.save(any()))
                 .willReturn(Account.builder()
                         .accountUser(user)
@@ -64,6 +66,7 @@ class AccountServiceTest {
 
         // then
         verify(accountRepository, times(1)).save(accountArgumentCaptor.capture());
+        assertEquals("1000000013", accountArgumentCaptor.getValue().getAccountNumber());
         assertEquals(12L, accountDto.getUserId());
         assertEquals("1000000013", accountDto.getAccountNumber());
     }
@@ -75,10 +78,10 @@ class AccountServiceTest {
         AccountUser user = AccountUser.builder()
                 .id(15L)
                 .name("Pobi").build();
-        given(accountUserRepository.findById(anyLong()))
+        given(accountUserCache.findById(anyLong()))
                 .willReturn(Optional.of(user));
-        given(accountRepository.findFirstByOrderByIdDesc())
-                .willReturn(Optional.empty());
+        given(accountNumberAllocator.next())
+                .willReturn("1000000000");
         given(accountRepository.save(any()))
                 .willReturn(Account.builder()
                         .accountUser(user)
@@ -100,7 +103,7 @@ class AccountServiceTest {
     void createAccount_UserNotFound() {
         // given
 
-        given(accountUserRepository.findById(anyLong()))
+        given(accountUserCache.findById(anyLong()))
                 .willReturn(Optional.empty());
 
         // when
@@ -118,7 +121,7 @@ class AccountServiceTest {
         AccountUser user = AccountUser.builder()
                 .id(15L)
                 .name("Pobi").build();
-        given(accountUserRepository.findById(anyLong()))
+        given(accountUserCache.findById(anyLong()))
                 .willReturn(Optional.of(user));
         given(accountRepository.countByAccountUser(any()))
                 .willReturn(10);
@@ -129,6 +132,8 @@ class AccountServiceTest {
 
         // then
         assertEquals(ErrorCode.Max_ACCOUNT_PER_USER_10, exception.getErrorCode());
+        verify(accountSnapshotCache, times(0)).findByUserId(anyLong());
+        verify(accountNumberAllocator, times(0)).next();
     }
     /*@Test
         //@DisplayName("")
@@ -137,7 +142,7 @@ class AccountServiceTest {
         AccountUser user = AccountUser.builder()
                 .id(12L)
                 .name("Pobi").build();
-        given(accountUserRepository.findById(anyLong()))
+        given(accountUserCache.findById(anyLong()))
                 .willReturn(Optional.of(user));
         given(accountRepository.findByAccountNumber(anyString()))
                 .willReturn(Optional.of(Account.builder()
@@ -163,7 +168,7 @@ class AccountServiceTest {
     void deleteAccount_UserNotFound() {
         // given
 
-        given(accountUserRepository.findById(anyLong()))
+        given(accountUserCache.findById(anyLong()))
                 .willReturn(Optional.empty());
 
         // when
@@ -181,7 +186,7 @@ class AccountServiceTest {
         AccountUser user = AccountUser.builder()
                 .id(12L)
                 .name("Pobi").build();
-        given(accountUserRepository.findById(anyLong()))
+        given(accountUserCache.findById(anyLong()))
                 .willReturn(Optional.of(user));
         given(accountRepository.findByAccountNumber(anyString()))
                 .willReturn(Optional.empty());
@@ -205,7 +210,7 @@ class AccountServiceTest {
                 .id(13L)
                 .name("Potter").build();
 
-        given(accountUserRepository.findById(anyLong()))
+        given(accountUserCache.findById(anyLong()))
                 .willReturn(Optional.of(user));
         given(accountRepository.findByAccountNumber(anyString()))
                 .willReturn(Optional.of(Account.builder()
@@ -229,7 +234,7 @@ class AccountServiceTest {
                 .id(12L)
                 .name("Pobi").build();
 
-        given(accountUserRepository.findById(anyLong()))
+        given(accountUserCache.findById(anyLong()))
                 .willReturn(Optional.of(user));
         given(accountRepository.findByAccountNumber(anyString()))
                 .willReturn(Optional.of(Account.builder()
@@ -253,7 +258,7 @@ class AccountServiceTest {
                 .id(12L)
                 .name("Pobi").build();
 
-        given(accountUserRepository.findById(anyLong()))
+        given(accountUserCache.findById(anyLong()))
                 .willReturn(Optional.of(user));
         given(accountRepository.findByAccountNumber(anyString()))
                 .willReturn(Optional.of(Account.builder()
@@ -290,10 +295,12 @@ class AccountServiceTest {
                         .accountUser(user)
                         .accountNumber("5634567890")
                         .balance(3000L).build());
-        given(accountUserRepository.findById(anyLong()))
+        given(accountUserCache.findById(anyLong()))
                 .willReturn(Optional.of(user));
-        given(accountRepository.findByAccountUser(any()))
-                .willReturn(accounts);
+        given(accountRepository.findAccountDtosByUserId(anyLong()))
+                .willReturn(accounts.stream()
+                        .map(AccountDto::fromEntity)
+                        .collect(Collectors.toList()));
         // when
         List<AccountDto> accountDtos = accountService.getAccountsByUserId(1L);
         // then
@@ -311,7 +318,7 @@ class AccountServiceTest {
     void failedToGetAccounts() {
         // given
 
-        given(accountUserRepository.findById(anyLong()))
+        given(accountUserCache.findById(anyLong()))
                 .willReturn(Optional.empty());
 
         // when
@@ -321,4 +328,19 @@ class AccountServiceTest {
         // then
         assertEquals(ErrorCode.USER_NOT_FOUND, exception.getErrorCode());
     }
+
+    @Test
+    @DisplayName("해당 계좌 없음 - 계좌 조회 실패")
+    void getAccount_AccountNotFound() {
+        // given
+        given(accountRepository.findDetailById(anyLong()))
+                .willReturn(Optional.empty());
+
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> accountService.getAccount(876L));
+
+        // then
+        assertEquals(ErrorCode.ACCOUNT_NOT_FOUND, exception.getErrorCode());
+    }
 }
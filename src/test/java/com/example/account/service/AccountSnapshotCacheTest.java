@@ -0,0 +1,101 @@
+package com.example.account.service;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.AccountUser;
+import com.example.account.dto.AccountSnapshot;
+import com.example.account.repository.AccountRepository;
+import com.example.account.type.AccountStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AccountSnapshotCacheTest {
+    @Mock
+    private AccountRepository accountRepository;
+
+    private AccountSnapshotCache accountSnapshotCache;
+
+    private final AccountUser user = AccountUser.builder()
+            .id(12L)
+            .name("Pobi").build();
+
+    @BeforeEach
+    void setUp() {
+        accountSnapshotCache = new AccountSnapshotCache(accountRepository, new SimpleMeterRegistry(),
+                100, Duration.ofMinutes(1));
+    }
+
+    private Account account(String accountNumber) {
+        return Account.builder()
+                .id(1L)
+                .accountUser(user)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10000L)
+                .accountNumber(accountNumber).build();
+    }
+
+    @Test
+        //@DisplayName("")
+    void loadOnceByAccountNumber() {
+        // given
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account("1000000012")));
+        // when
+        accountSnapshotCache.findByAccountNumber("1000000012");
+        AccountSnapshot snapshot = accountSnapshotCache.findByAccountNumber("1000000012").get();
+        // then
+        verify(accountRepository, times(1)).findByAccountNumber("1000000012");
+        assertEquals(12L, snapshot.getUserId());
+        assertEquals(AccountStatus.IN_USE, snapshot.getAccountStatus());
+    }
+
+    @Test
+        //@DisplayName("")
+    void userListAlsoFillsAccountNumberCache() {
+        // given
+        given(accountRepository.findByAccountUserId(anyLong()))
+                .willReturn(Arrays.asList(account("1000000012"), account("1000000013")));
+        // when
+        List<AccountSnapshot> snapshots = accountSnapshotCache.findByUserId(12L);
+        accountSnapshotCache.findByAccountNumber("1000000013");
+        // then
+        assertEquals(2, snapshots.size());
+        verify(accountRepository, never()).findByAccountNumber(anyString());
+    }
+
+    @Test
+        //@DisplayName("")
+    void reloadAfterEvict() {
+        // given
+        given(accountRepository.findByAccountUserId(anyLong()))
+                .willReturn(Arrays.asList(account("1000000012")));
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account("1000000012")));
+        // when
+        accountSnapshotCache.findByUserId(12L);
+        accountSnapshotCache.evict(12L, "1000000012");
+        accountSnapshotCache.findByUserId(12L);
+        accountSnapshotCache.evict(12L, "1000000012");
+        accountSnapshotCache.findByAccountNumber("1000000012");
+        // then
+        verify(accountRepository, times(2)).findByAccountUserId(12L);
+        verify(accountRepository, times(1)).findByAccountNumber("1000000012");
+    }
+}
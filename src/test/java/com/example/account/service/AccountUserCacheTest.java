@@ -0,0 +1,103 @@
+package com.example.account.service;
+
+import com.example.account.domain.AccountUser;
+import com.example.account.repository.AccountUserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AccountUserCacheTest {
+    @Mock
+    private AccountUserRepository accountUserRepository;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AccountUserCache accountUserCache;
+
+    @BeforeEach
+    void setUp() {
+        accountUserCache = new AccountUserCache(accountUserRepository, meterRegistry, 100, Duration.ofMinutes(10));
+    }
+
+    @Test
+        //@DisplayName("")
+    void loadOnceAndServeFromCache() {
+        // given
+        given(accountUserRepository.findById(anyLong()))
+                .willReturn(Optional.of(AccountUser.builder()
+                        .id(12L)
+                        .name("Pobi").build()));
+        // when
+        accountUserCache.findById(12L);
+        Optional<AccountUser> accountUser = accountUserCache.findById(12L);
+        // then
+        verify(accountUserRepository, times(1)).findById(12L);
+        assertEquals(12L, accountUser.get().getId());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "accountUser").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+        //@DisplayName("")
+    void reloadAfterEvict() {
+        // given
+        given(accountUserRepository.findById(anyLong()))
+                .willReturn(Optional.of(AccountUser.builder()
+                        .id(12L)
+                        .name("Pobi").build()));
+        // when
+        accountUserCache.findById(12L);
+        accountUserCache.evict(12L);
+        accountUserCache.findById(12L);
+        // then
+        verify(accountUserRepository, times(2)).findById(12L);
+    }
+
+    @Test
+        //@DisplayName("")
+    void missingUserIsNotCached() {
+        // given
+        given(accountUserRepository.findById(anyLong()))
+                .willReturn(Optional.empty());
+        // when
+        assertFalse(accountUserCache.findById(12L).isPresent());
+        assertFalse(accountUserCache.findById(12L).isPresent());
+        // then
+        verify(accountUserRepository, times(2)).findById(12L);
+    }
+
+    @Test
+        //@DisplayName("")
+    void changingReturnedUserDoesNotChangeCache() {
+        // given
+        AccountUser loadedUser = AccountUser.builder()
+                .id(12L)
+                .name("Pobi").build();
+        given(accountUserRepository.findById(anyLong()))
+                .willReturn(Optional.of(loadedUser));
+        // when
+        AccountUser first = accountUserCache.findById(12L).get();
+        first.setName("Changed");
+        loadedUser.setName("Changed");
+        AccountUser second = accountUserCache.findById(12L).get();
+        // then
+        assertNotSame(first, second);
+        assertEquals("Pobi", second.getName());
+    }
+}
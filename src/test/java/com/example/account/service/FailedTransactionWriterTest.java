@@ -0,0 +1,114 @@
+package com.example.account.service;
+
+import com.example.account.dto.TransactionDto;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class FailedTransactionWriterTest {
+    @Mock
+    private TransactionService transactionService;
+
+    @Test
+        //@DisplayName("")
+    void drainAllRecordsOnShutdown() throws InterruptedException {
+        // given
+        List<TransactionDto> saved = new ArrayList<>();
+        willAnswer(invocation -> saved.addAll(invocation.getArgument(0)))
+                .given(transactionService).saveFailedTransactions(anyList());
+        FailedTransactionWriter writer = new FailedTransactionWriter(
+                transactionService, new SimpleMeterRegistry(), 1000, 10, 50);
+        writer.start();
+
+        // when
+        for (int i = 0; i < 25; i++) {
+            writer.enqueue(TransactionType.USE, "1000000000", 100L + i);
+        }
+        writer.shutdown();
+
+        // then
+        verify(transactionService, atLeastOnce()).saveFailedTransactions(anyList());
+        assertEquals(25, saved.size());
+        assertEquals(TransactionResultType.F, saved.get(0).getTransactionResultType());
+        assertEquals(TransactionType.USE, saved.get(0).getTransactionType());
+    }
+
+    @Test
+        //@DisplayName("")
+    void saveSynchronouslyWhenNotRunning() {
+        // given
+        FailedTransactionWriter writer = new FailedTransactionWriter(
+                transactionService, new SimpleMeterRegistry(), 1, 10, 0);
+        ArgumentCaptor<List<TransactionDto>> captor = ArgumentCaptor.forClass(List.class);
+
+        // when
+        writer.enqueue(TransactionType.CANCEL, "1000000000", 100L);
+
+        // then
+        verify(transactionService, times(1)).saveFailedTransactions(captor.capture());
+        assertEquals(1, captor.getValue().size());
+        assertEquals(TransactionType.CANCEL, captor.getValue().get(0).getTransactionType());
+    }
+
+    @Test
+        //@DisplayName("")
+    void leaveBalanceSnapshotToFlush() {
+        // given
+        FailedTransactionWriter writer = new FailedTransactionWriter(
+                transactionService, new SimpleMeterRegistry(), 1, 10, 0);
+        ArgumentCaptor<List<TransactionDto>> captor = ArgumentCaptor.forClass(List.class);
+
+        // when
+        writer.enqueue(TransactionType.USE, "1000000000", 1000L);
+
+        // then
+        // 호출한 스레드에서는 잔액을 조회하지 않는다. 저장할 때 채운다.
+        verify(transactionService, times(1)).saveFailedTransactions(captor.capture());
+        assertNull(captor.getValue().get(0).getBalanceSnapshot());
+    }
+
+    @Test
+        //@DisplayName("")
+    void fallBackToRowByRowWhenBatchKeepsFailing() throws InterruptedException {
+        // given
+        List<TransactionDto> saved = new ArrayList<>();
+        willAnswer(invocation -> {
+            List<TransactionDto> batch = invocation.getArgument(0);
+            if (batch.size() > 1 || batch.get(0).getAmount() == 102L) {
+                throw new IllegalStateException("batch insert failed");
+            }
+            return saved.addAll(batch);
+        }).given(transactionService).saveFailedTransactions(anyList());
+        FailedTransactionWriter writer = new FailedTransactionWriter(
+                transactionService, new SimpleMeterRegistry(), 1000, 10, 50);
+        writer.start();
+
+        // when
+        for (int i = 0; i < 5; i++) {
+            writer.enqueue(TransactionType.USE, "1000000000", 100L + i);
+        }
+        writer.shutdown();
+
+        // then
+        assertEquals(4, saved.size());
+        assertTrue(saved.stream().noneMatch(failedTransaction -> failedTransaction.getAmount() == 102L));
+    }
+}
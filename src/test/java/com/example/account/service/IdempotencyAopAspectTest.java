@@ -0,0 +1,264 @@
+package com.example.account.service;
+
+import com.example.account.dto.UseBalance;
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.TransactionResultType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyAopAspectTest {
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RBucket<String> bucket;
+
+    @Mock
+    private ProceedingJoinPoint proceedingJoinPoint;
+
+    @Mock
+    private MethodSignature methodSignature;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private IdempotencyAopAspect idempotencyAopAspect;
+
+    private MockHttpServletRequest request;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyAopAspect = new IdempotencyAopAspect(redissonClient, objectMapper);
+        request = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private void givenIdempotencyKey() {
+        givenIdempotencyKey(new UseBalance.Request(1L, "1234567890", 1000L));
+    }
+
+    private void givenIdempotencyKey(UseBalance.Request body) {
+        request.setMethod("POST");
+        request.setRequestURI("/transaction/use");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/transaction/use");
+        request.addHeader(IdempotencyAopAspect.IDEMPOTENCY_KEY_HEADER, "key-1");
+        given(proceedingJoinPoint.getSignature())
+                .willReturn(methodSignature);
+        given(proceedingJoinPoint.getArgs())
+                .willReturn(new Object[]{body});
+        given(redissonClient.<String>getBucket(anyString(), any()))
+                .willReturn(bucket);
+    }
+
+    @Test
+    void proceedWithoutIdempotencyKey() throws Throwable {
+        // given
+        given(proceedingJoinPoint.proceed())
+                .willReturn("response");
+        // when
+        Object response = idempotencyAopAspect.aroundMethod(proceedingJoinPoint);
+        // then
+        assertEquals("response", response);
+        verifyNoInteractions(redissonClient);
+    }
+
+    @Test
+    void storeFirstResponse() throws Throwable {
+        // given
+        givenIdempotencyKey();
+        given(bucket.trySet(anyString(), anyLong(), any()))
+                .willReturn(true);
+        given(proceedingJoinPoint.proceed())
+                .willReturn(response());
+        // when
+        idempotencyAopAspect.aroundMethod(proceedingJoinPoint);
+        // then
+        verify(bucket).set(contains("\"transactionId\":\"trxId\""), anyLong(), any());
+    }
+
+    @Test
+    void replayStoredResponseWithoutProceeding() throws Throwable {
+        // given
+        givenIdempotencyKey();
+        given(bucket.trySet(anyString(), anyLong(), any()))
+                .willReturn(false);
+        given(bucket.get())
+                .willReturn(storedValue(objectMapper.writeValueAsString(response())));
+        doReturn(UseBalance.Response.class).when(methodSignature).getReturnType();
+        // when
+        UseBalance.Response response = (UseBalance.Response) idempotencyAopAspect.aroundMethod(proceedingJoinPoint);
+        // then
+        assertEquals("trxId", response.getTransactionId());
+        assertEquals(1000L, response.getAmount());
+        verify(proceedingJoinPoint, times(0)).proceed();
+    }
+
+    @Test
+    void rejectWhileFirstRequestInProgress() throws Throwable {
+        // given
+        givenIdempotencyKey();
+        given(bucket.trySet(anyString(), anyLong(), any()))
+                .willReturn(false);
+        given(bucket.get())
+                .willReturn(storedValue("PENDING"));
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> idempotencyAopAspect.aroundMethod(proceedingJoinPoint));
+        // then
+        assertEquals(ErrorCode.IDEMPOTENT_REQUEST_IN_PROGRESS, exception.getErrorCode());
+        verify(proceedingJoinPoint, times(0)).proceed();
+    }
+
+    @Test
+    void releaseKeyWhenRequestFails() throws Throwable {
+        // given
+        givenIdempotencyKey();
+        given(bucket.trySet(anyString(), anyLong(), any()))
+                .willReturn(true);
+        given(proceedingJoinPoint.proceed())
+                .willThrow(new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE));
+        // when
+        assertThrows(AccountException.class,
+                () -> idempotencyAopAspect.aroundMethod(proceedingJoinPoint));
+        // then
+        verify(bucket).delete();
+        verify(bucket, times(0)).set(anyString(), anyLong(), any());
+    }
+
+    @Test
+    void storeAsyncResponseWhenCompleted() throws Throwable {
+        // given
+        givenIdempotencyKey();
+        given(bucket.trySet(anyString(), anyLong(), any()))
+                .willReturn(true);
+        CompletableFuture<UseBalance.Response> future = new CompletableFuture<>();
+        given(proceedingJoinPoint.proceed())
+                .willReturn(future);
+        // when
+        CompletableFuture<?> response = (CompletableFuture<?>) idempotencyAopAspect.aroundMethod(proceedingJoinPoint);
+        verify(bucket, times(0)).set(anyString(), anyLong(), any());
+        future.complete(response());
+        // then
+        assertEquals("trxId", ((UseBalance.Response) response.get()).getTransactionId());
+        verify(bucket).set(contains("\"transactionId\":\"trxId\""), anyLong(), any());
+    }
+
+    @Test
+    void scopeKeyByRequestMappingAndAccountNumber() throws Throwable {
+        // given
+        givenIdempotencyKey();
+        given(bucket.trySet(anyString(), anyLong(), any()))
+                .willReturn(true);
+        given(proceedingJoinPoint.proceed())
+                .willReturn(response());
+        // when
+        idempotencyAopAspect.aroundMethod(proceedingJoinPoint);
+        // then
+        // 핸들러 클래스와 상관없이 같은 경로의 요청은 같은 범위다.
+        verify(redissonClient).getBucket(eq("IDEM:POST /transaction/use:1234567890:key-1"), any());
+    }
+
+    @Test
+    void rejectSameKeyWithDifferentBody() throws Throwable {
+        // given
+        givenIdempotencyKey(new UseBalance.Request(1L, "1234567890", 2000L));
+        given(bucket.trySet(anyString(), anyLong(), any()))
+                .willReturn(false);
+        given(bucket.get())
+                .willReturn(storedValue(objectMapper.writeValueAsString(response())));
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> idempotencyAopAspect.aroundMethod(proceedingJoinPoint));
+        // then
+        assertEquals(ErrorCode.IDEMPOTENCY_KEY_REUSED, exception.getErrorCode());
+        verify(proceedingJoinPoint, times(0)).proceed();
+    }
+
+    @Test
+    void keepPendingWhenStoreFails() throws Throwable {
+        // given
+        givenIdempotencyKey();
+        given(bucket.trySet(anyString(), anyLong(), any()))
+                .willReturn(true);
+        given(proceedingJoinPoint.proceed())
+                .willReturn(response());
+        willThrow(new IllegalStateException("redis down"))
+                .given(bucket).set(anyString(), anyLong(), any());
+        // when
+        UseBalance.Response response = (UseBalance.Response) idempotencyAopAspect.aroundMethod(proceedingJoinPoint);
+        // then
+        assertEquals("trxId", response.getTransactionId());
+        verify(bucket, times(0)).delete();
+    }
+
+    @Test
+    void refreshPendingMarkerUntilAsyncResponseCompletes() throws Throwable {
+        // given
+        ReflectionTestUtils.setField(idempotencyAopAspect, "pendingTtl", Duration.ofMillis(30));
+        givenIdempotencyKey();
+        given(bucket.trySet(anyString(), anyLong(), any()))
+                .willReturn(true);
+        CompletableFuture<UseBalance.Response> future = new CompletableFuture<>();
+        given(proceedingJoinPoint.proceed())
+                .willReturn(future);
+        // when
+        CompletableFuture<?> response = (CompletableFuture<?>) idempotencyAopAspect.aroundMethod(proceedingJoinPoint);
+        // then
+        // 대기열에서 기다리는 동안 처리 중 표시가 만료되지 않도록 연장한다.
+        verify(bucket, timeout(1000).atLeast(2)).expire(30L, TimeUnit.MILLISECONDS);
+        future.complete(response());
+        response.get();
+        verify(bucket).set(contains("\"transactionId\":\"trxId\""), anyLong(), any());
+        clearInvocations(bucket);
+        Thread.sleep(100);
+        verify(bucket, never()).expire(anyLong(), any());
+        idempotencyAopAspect.shutdown();
+    }
+
+    private String storedValue(String body) throws Exception {
+        return idempotencyAopAspect.requestHash(new Object[]{new UseBalance.Request(1L, "1234567890", 1000L)})
+                + ":" + body;
+    }
+
+    private UseBalance.Response response() {
+        return UseBalance.Response.builder()
+                .accountNumber("1234567890")
+                .transactionResultType(TransactionResultType.S)
+                .transactionId("trxId")
+                .amount(1000L)
+                .transactedAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -1,9 +1,13 @@
 package com.example.account.service;
 
+import com.example.account.aop.LockOptions;
+import com.example.account.controller.TransactionCommandController;
 import com.example.account.dto.UseBalance;
 import com.example.account.exception.AccountException;
 import com.example.account.type.ErrorCode;
 import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,7 +17,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -26,9 +32,20 @@ public class LockAopAspectTest {
     @Mock
     private ProceedingJoinPoint proceedingJoinPoint;
 
+    @Mock
+    private MethodSignature methodSignature;
+
     @InjectMocks
     private LockAopAspect lockAopAspect;
 
+    @BeforeEach
+    void setUp() throws NoSuchMethodException {
+        given(proceedingJoinPoint.getSignature())
+                .willReturn(methodSignature);
+        given(methodSignature.getMethod())
+                .willReturn(TransactionCommandController.class.getMethod("useBalance", UseBalance.Request.class));
+    }
+
     @Test
         //@DisplayName("")
     void lockAndUnlock() throws Throwable {
@@ -41,7 +58,7 @@ public class LockAopAspectTest {
         lockAopAspect.aroundMethod(proceedingJoinPoint, request);
 
         // then
-        verify(lockService, times(1)).lock(lockArgumentCaptor.capture());
+        verify(lockService, times(1)).lock(lockArgumentCaptor.capture(), any(LockOptions.class));
         verify(lockService, times(1)).unlock(unLockArgumentCaptor.capture());
         assertEquals("1234", lockArgumentCaptor.getValue());
         assertEquals("1234", unLockArgumentCaptor.getValue());
@@ -62,9 +79,27 @@ public class LockAopAspectTest {
                 lockAopAspect.aroundMethod(proceedingJoinPoint, request));
 
         // then
-        verify(lockService, times(1)).lock(lockArgumentCaptor.capture());
+        verify(lockService, times(1)).lock(lockArgumentCaptor.capture(), any(LockOptions.class));
         verify(lockService, times(1)).unlock(unLockArgumentCaptor.capture());
         assertEquals("4321", lockArgumentCaptor.getValue());
         assertEquals("4321", unLockArgumentCaptor.getValue());
     }
+
+    @Test
+        //@DisplayName("")
+    void lockOptionsResolvedFromAnnotation() throws Throwable {
+        // given
+        ArgumentCaptor<LockOptions> lockOptionsArgumentCaptor = ArgumentCaptor.forClass(LockOptions.class);
+
+        UseBalance.Request request = new UseBalance.Request(123L, "1234", 1000L);
+        // when
+        lockAopAspect.aroundMethod(proceedingJoinPoint, request);
+        lockAopAspect.aroundMethod(proceedingJoinPoint, request);
+
+        // then
+        verify(lockService, times(2)).lock(any(), lockOptionsArgumentCaptor.capture());
+        assertEquals(1000L, lockOptionsArgumentCaptor.getValue().getWaitTime());
+        assertEquals(5000L, lockOptionsArgumentCaptor.getValue().getLeaseTime());
+        assertSame(lockOptionsArgumentCaptor.getAllValues().get(0), lockOptionsArgumentCaptor.getAllValues().get(1));
+    }
 }
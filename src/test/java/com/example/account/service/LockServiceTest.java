@@ -1,21 +1,33 @@
 package com.example.account.service;
 
+import com.example.account.aop.LockOptions;
 import com.example.account.dto.UseBalance;
 import com.example.account.exception.AccountException;
 import com.example.account.type.ErrorCode;
+import com.example.account.type.LockMode;
+import com.example.account.type.LockPolicy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -27,9 +39,17 @@ public class LockServiceTest {
     @Mock
     private RLock rLock;
 
-    @InjectMocks
+    private final LocalLockTable localLockTable = new LocalLockTable(16);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     private LockService lockService;
 
+    @BeforeEach
+    void setUp() {
+        lockService = new LockService(redissonClient, localLockTable, meterRegistry);
+    }
+
     @Test
         //@DisplayName("")
     void successGetLock() throws InterruptedException {
@@ -56,7 +76,119 @@ public class LockServiceTest {
         AccountException exception = assertThrows(AccountException.class, () -> lockService.lock("123"));
         // then
         assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, exception.getErrorCode());
+        assertEquals(1, meterRegistry.get("account.lock.acquire")
+                .tag("policy", "WAIT")
+                .tag("result", "failed")
+                .timer().count());
+        assertEquals(1, meterRegistry.get("account.lock.failures")
+                .tag("policy", "WAIT")
+                .tag("bucket", Integer.toString(Math.floorMod("123".hashCode(), 16)))
+                .counter().count());
+    }
+
+    @Test
+        //@DisplayName("")
+    void recordLockHoldTime() throws InterruptedException {
+        // given
+        given(redissonClient.getLock(anyString()))
+                .willReturn(rLock);
+        given(rLock.tryLock(anyLong(), anyLong(), any()))
+                .willReturn(true);
+        // when
+        lockService.lock("123");
+        lockService.unlock("123");
+        // then
+        assertEquals(1, meterRegistry.get("account.lock.held").timer().count());
+    }
+
+    @Test
+        //@DisplayName("")
+    void failFastDoesNotWait() throws InterruptedException {
+        // given
+        given(redissonClient.getLock(anyString()))
+                .willReturn(rLock);
+        given(rLock.tryLock(anyLong(), anyLong(), any()))
+                .willReturn(true);
+        // when
+        lockService.lock("123", new LockOptions(0L, 3000L, LockPolicy.FAIL_FAST));
+        // then
+        verify(rLock, times(1)).tryLock(eq(0L), eq(3000L), eq(TimeUnit.MILLISECONDS));
+        assertEquals(1, meterRegistry.get("account.lock.acquire")
+                .tag("policy", "FAIL_FAST")
+                .tag("result", "acquired")
+                .timer().count());
+    }
+
+    @Test
+        //@DisplayName("")
+    void localThenRedis_releaseLocalLockWhenRedisFails() throws Exception {
+        // given
+        ReflectionTestUtils.setField(lockService, "lockMode", LockMode.LOCAL_THEN_REDIS);
+        given(redissonClient.getLock(anyString()))
+                .willReturn(rLock);
+        given(rLock.tryLock(anyLong(), anyLong(), any()))
+                .willReturn(false);
+        // when
+        AccountException exception = assertThrows(AccountException.class, () -> lockService.lock("123"));
+        // then
+        assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, exception.getErrorCode());
+        assertTrue(CompletableFuture.supplyAsync(() -> {
+            try {
+                return localLockTable.tryLock("123", 0, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                return false;
+            } finally {
+                localLockTable.unlock("123");
+            }
+        }).get());
     }
 
+    @Test
+        //@DisplayName("")
+    void localThenRedis_sameNodeCallerWaitsLocally() throws Exception {
+        // given
+        ReflectionTestUtils.setField(lockService, "lockMode", LockMode.LOCAL_THEN_REDIS);
+        // ReentrantLock 은 잡은 스레드에서만 풀 수 있으므로 같은 스레드에서 잡고 푼다.
+        ExecutorService holder = Executors.newSingleThreadExecutor();
+        try {
+            assertTrue(holder.submit(() -> localLockTable.tryLock("123", 0, TimeUnit.SECONDS)).get());
+            // when
+            AccountException exception = assertThrows(AccountException.class,
+                    () -> lockService.lock("123", new LockOptions(50L, 3000L, LockPolicy.WAIT)));
+            // then
+            assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, exception.getErrorCode());
+        } finally {
+            holder.submit(() -> localLockTable.unlock("123")).get();
+            holder.shutdown();
+        }
+        verify(redissonClient, never()).getLock(anyString());
+    }
 
+    @Test
+        //@DisplayName("")
+    void localThenRedis_failFastWaitsBrieflyForCollidingAccount() throws Exception {
+        // given
+        ReflectionTestUtils.setField(lockService, "lockMode", LockMode.LOCAL_THEN_REDIS);
+        given(redissonClient.getLock(anyString()))
+                .willReturn(rLock);
+        given(rLock.tryLock(anyLong(), anyLong(), any()))
+                .willReturn(true);
+        // 16 stripe 테이블에서 "112" 와 "123" 은 같은 stripe 를 쓴다.
+        ExecutorService holder = Executors.newSingleThreadExecutor();
+        try {
+            assertTrue(holder.submit(() -> localLockTable.tryLock("112", 0, TimeUnit.SECONDS)).get());
+            holder.submit(() -> {
+                Thread.sleep(20);
+                localLockTable.unlock("112");
+                return null;
+            });
+            // when
+            // then
+            assertDoesNotThrow(() -> lockService.lock("123", new LockOptions(0L, 3000L, LockPolicy.FAIL_FAST)));
+            verify(rLock, times(1)).tryLock(eq(0L), eq(3000L), eq(TimeUnit.MILLISECONDS));
+        } finally {
+            holder.shutdown();
+            localLockTable.unlock("123");
+        }
+    }
 }
@@ -0,0 +1,59 @@
+package com.example.account.service;
+
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class OptimisticRetryAopAspectTest {
+    @Mock
+    private ProceedingJoinPoint proceedingJoinPoint;
+
+    private final OptimisticRetryAopAspect optimisticRetryAopAspect = new OptimisticRetryAopAspect();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(optimisticRetryAopAspect, "backoffMillis", 0L);
+    }
+
+    @Test
+        //@DisplayName("")
+    void retryUntilSuccess() throws Throwable {
+        // given
+        given(proceedingJoinPoint.proceed())
+                .willThrow(new ObjectOptimisticLockingFailureException("Account", 1L))
+                .willReturn("result");
+        // when
+        Object result = optimisticRetryAopAspect.aroundMethod(proceedingJoinPoint);
+        // then
+        assertEquals("result", result);
+        verify(proceedingJoinPoint, times(2)).proceed();
+    }
+
+    @Test
+        //@DisplayName("")
+    void retryExhausted() throws Throwable {
+        // given
+        given(proceedingJoinPoint.proceed())
+                .willThrow(new ObjectOptimisticLockingFailureException("Account", 1L));
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> optimisticRetryAopAspect.aroundMethod(proceedingJoinPoint));
+        // then
+        assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, exception.getErrorCode());
+        verify(proceedingJoinPoint, times(3)).proceed();
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.account.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimeOrderedTransactionIdGeneratorTest {
+    private final TimeOrderedTransactionIdGenerator generator = new TimeOrderedTransactionIdGenerator(7);
+
+    @Test
+        //@DisplayName("")
+    void fixedLengthHex() {
+        // given
+        // when
+        String transactionId = generator.generate();
+        // then
+        assertEquals(32, transactionId.length());
+        assertTrue(transactionId.matches("[0-9a-f]{32}"));
+        assertEquals("0007", transactionId.substring(12, 16));
+    }
+
+    @Test
+        //@DisplayName("")
+    void increasingOnSameNode() {
+        // given
+        List<String> transactionIds = new ArrayList<>();
+        // when
+        for (int i = 0; i < 1000; i++) {
+            transactionIds.add(generator.generate());
+        }
+        // then
+        for (int i = 1; i < transactionIds.size(); i++) {
+            assertTrue(transactionIds.get(i - 1).compareTo(transactionIds.get(i)) < 0);
+        }
+    }
+
+    @Test
+        //@DisplayName("")
+    void uniqueUnderConcurrency() {
+        // given
+        Set<String> transactionIds = ConcurrentHashMap.newKeySet();
+        // when
+        IntStream.range(0, 100_000).parallel()
+                .forEach(i -> transactionIds.add(generator.generate()));
+        // then
+        assertEquals(100_000, transactionIds.size());
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.account.service;
+
+import com.example.account.dto.TransactionDto;
+import com.example.account.dto.UseBalance;
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionBatchServiceTest {
+    @Mock
+    private LockService lockService;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private FailedTransactionWriter failedTransactionWriter;
+
+    @Mock
+    private ObjectProvider<AccountCommandExecutor> accountCommandExecutor;
+
+    @InjectMocks
+    private TransactionBatchService transactionBatchService;
+
+    private static List<TransactionDto> succeeded(List<UseBalance.Request> requests) {
+        return requests.stream()
+                .map(request -> TransactionDto.builder()
+                        .accountNumber(request.getAccountNumber())
+                        .amount(request.getAmount())
+                        .transactionResultType(TransactionResultType.S)
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    @Test
+        //@DisplayName("")
+    void lockOncePerAccountAndKeepRequestOrder() {
+        // given
+        given(transactionService.useBalanceInBatch(eq("1000000000"), anyList()))
+                .willAnswer(invocation -> succeeded(invocation.getArgument(1)));
+        given(transactionService.useBalanceInBatch(eq("2000000000"), anyList()))
+                .willAnswer(invocation -> succeeded(invocation.getArgument(1)));
+        // when
+        List<TransactionDto> results = transactionBatchService.useBalanceBatch(Arrays.asList(
+                new UseBalance.Request(1L, "1000000000", 100L),
+                new UseBalance.Request(2L, "2000000000", 200L),
+                new UseBalance.Request(1L, "1000000000", 300L)));
+        // then
+        verify(lockService, times(1)).lock("1000000000");
+        verify(lockService, times(1)).lock("2000000000");
+        verify(lockService, times(1)).unlock("1000000000");
+        verify(lockService, times(1)).unlock("2000000000");
+        assertEquals(3, results.size());
+        assertEquals(100L, results.get(0).getAmount());
+        assertEquals("2000000000", results.get(1).getAccountNumber());
+        assertEquals(300L, results.get(2).getAmount());
+    }
+
+    @Test
+        //@DisplayName("")
+    void lockFailureFailsOnlyThatAccount() {
+        // given
+        willThrow(new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK))
+                .given(lockService).lock("1000000000");
+        given(transactionService.useBalanceInBatch(eq("2000000000"), anyList()))
+                .willAnswer(invocation -> succeeded(invocation.getArgument(1)));
+        // when
+        List<TransactionDto> results = transactionBatchService.useBalanceBatch(Arrays.asList(
+                new UseBalance.Request(1L, "1000000000", 100L),
+                new UseBalance.Request(2L, "2000000000", 200L)));
+        // then
+        verify(lockService, never()).unlock("1000000000");
+        verify(failedTransactionWriter, times(1)).enqueue(TransactionType.USE, "1000000000", 100L);
+        verify(failedTransactionWriter, never()).enqueue(TransactionType.USE, "2000000000", 200L);
+        assertEquals(TransactionResultType.F, results.get(0).getTransactionResultType());
+        assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, results.get(0).getErrorCode());
+        assertEquals(TransactionResultType.S, results.get(1).getTransactionResultType());
+    }
+
+    @Test
+        //@DisplayName("")
+    void unexpectedFailureFailsOnlyThatAccount() {
+        // given
+        given(transactionService.useBalanceInBatch(eq("1000000000"), anyList()))
+                .willAnswer(invocation -> succeeded(invocation.getArgument(1)));
+        given(transactionService.useBalanceInBatch(eq("2000000000"), anyList()))
+                .willThrow(new IllegalStateException("connection reset"));
+        // when
+        List<TransactionDto> results = transactionBatchService.useBalanceBatch(Arrays.asList(
+                new UseBalance.Request(1L, "1000000000", 100L),
+                new UseBalance.Request(2L, "2000000000", 200L)));
+        // then
+        assertEquals(TransactionResultType.S, results.get(0).getTransactionResultType());
+        assertEquals(TransactionResultType.F, results.get(1).getTransactionResultType());
+        assertEquals(ErrorCode.INTERNAL_SERVER_ERROR, results.get(1).getErrorCode());
+        verify(lockService, times(1)).unlock("2000000000");
+        verify(failedTransactionWriter, times(1)).enqueue(TransactionType.USE, "2000000000", 200L);
+    }
+
+    @Test
+        //@DisplayName("")
+    void recordFailedTransactionForEveryRequestOfFailedGroup() {
+        // given
+        given(transactionService.useBalanceInBatch(eq("1000000000"), anyList()))
+                .willThrow(new AccountException(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED));
+        // when
+        List<TransactionDto> results = transactionBatchService.useBalanceBatch(Arrays.asList(
+                new UseBalance.Request(1L, "1000000000", 100L),
+                new UseBalance.Request(1L, "1000000000", 300L)));
+        // then
+        verify(failedTransactionWriter, times(1)).enqueue(TransactionType.USE, "1000000000", 100L);
+        verify(failedTransactionWriter, times(1)).enqueue(TransactionType.USE, "1000000000", 300L);
+        assertEquals(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED, results.get(0).getErrorCode());
+        assertEquals(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED, results.get(1).getErrorCode());
+    }
+
+    @Test
+        //@DisplayName("")
+    void runEachAccountGroupOnCommandExecutor() throws Exception {
+        // given
+        AccountCommandExecutor executor = new AccountCommandExecutor(
+                new SimpleMeterRegistry(), runnable -> runnable, 2, 1000, 1000);
+        given(accountCommandExecutor.getObject())
+                .willReturn(executor);
+        given(transactionService.useBalanceInBatch(eq("1000000000"), anyList()))
+                .willAnswer(invocation -> succeeded(invocation.getArgument(1)));
+        given(transactionService.useBalanceInBatch(eq("2000000000"), anyList()))
+                .willThrow(new IllegalStateException("connection reset"));
+        // when
+        List<TransactionDto> results;
+        try {
+            results = transactionBatchService.useBalanceBatchAsync(Arrays.asList(
+                    new UseBalance.Request(1L, "1000000000", 100L),
+                    new UseBalance.Request(2L, "2000000000", 200L),
+                    new UseBalance.Request(1L, "1000000000", 300L))).get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+        // then
+        verify(lockService, times(1)).lock("1000000000");
+        verify(lockService, times(1)).unlock("2000000000");
+        assertEquals(3, results.size());
+        assertEquals(TransactionResultType.S, results.get(0).getTransactionResultType());
+        assertEquals(ErrorCode.INTERNAL_SERVER_ERROR, results.get(1).getErrorCode());
+        assertEquals(300L, results.get(2).getAmount());
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.account.service;
+
+import com.example.account.dto.AccountSnapshot;
+import com.example.account.dto.TransactionHistoryItem;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.TransactionArchiveRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.type.AccountStatus;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.ExportFormat;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionExportServiceTest {
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private TransactionArchiveRepository transactionArchiveRepository;
+
+    @Mock
+    private AccountSnapshotCache accountSnapshotCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionExportService transactionExportService;
+
+    @BeforeEach
+    void setUp() {
+        transactionExportService = new TransactionExportService(transactionRepository,
+                transactionArchiveRepository, accountSnapshotCache,
+                new ObjectMapper().findAndRegisterModules(), transactionManager);
+    }
+
+    @Test
+    void exportCsvWithinDateRange() throws Exception {
+        // given
+        givenAccount();
+        given(transactionRepository.streamLedger(eq(1L), any(), any()))
+                .willReturn(Stream.of(item(1L), item(2L)));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        // when
+        transactionExportService.exportLedger("1000000012",
+                        LocalDate.of(2022, 6, 1), LocalDate.of(2022, 6, 30), ExportFormat.CSV)
+                .writeTo(outputStream);
+        // then
+        verify(transactionRepository).streamLedger(1L,
+                LocalDateTime.of(2022, 6, 1, 0, 0), LocalDateTime.of(2022, 7, 1, 0, 0));
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("transaction_id,transaction_type,transaction_result_type,amount,balance_snapshot,transacted_at",
+                lines[0]);
+        assertEquals("trx1,USE,S,1000,9000,2022-06-01T10:00", lines[1]);
+    }
+
+    @Test
+    void exportArchivedTransactionsBeforeCurrentOnes() throws Exception {
+        // given
+        AtomicBoolean archiveClosed = new AtomicBoolean();
+        AtomicBoolean openedAfterArchiveClosed = new AtomicBoolean();
+        givenAccount();
+        given(transactionArchiveRepository.streamLedger(eq(1L), any(), any()))
+                .willReturn(Stream.of(item(1L, LocalDateTime.of(2021, 3, 1, 10, 0)),
+                                item(2L, LocalDateTime.of(2021, 4, 1, 10, 0)))
+                        .onClose(() -> archiveClosed.set(true)));
+        given(transactionRepository.streamLedger(eq(1L), any(), any()))
+                .willAnswer(invocation -> {
+                    // 커서는 한 번에 하나만 열려 있어야 한다.
+                    openedAfterArchiveClosed.set(archiveClosed.get());
+                    return Stream.of(item(3L, LocalDateTime.of(2021, 5, 1, 10, 0)),
+                            item(4L, LocalDateTime.of(2022, 6, 1, 10, 0)));
+                });
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        // when
+        transactionExportService.exportLedger("1000000012",
+                        LocalDate.of(2021, 1, 1), LocalDate.of(2022, 12, 31), ExportFormat.CSV)
+                .writeTo(outputStream);
+        // then
+        assertTrue(openedAfterArchiveClosed.get());
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(5, lines.length);
+        assertTrue(lines[1].startsWith("trx1,"));
+        assertTrue(lines[2].startsWith("trx2,"));
+        assertTrue(lines[3].startsWith("trx3,"));
+        assertTrue(lines[4].startsWith("trx4,"));
+    }
+
+    @Test
+    void exportNdjson() throws Exception {
+        // given
+        givenAccount();
+        given(transactionRepository.streamLedger(eq(1L), any(), any()))
+                .willReturn(Stream.of(item(1L)));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        // when
+        transactionExportService.exportLedger("1000000012",
+                        LocalDate.of(2022, 6, 1), LocalDate.of(2022, 6, 1), ExportFormat.NDJSON)
+                .writeTo(outputStream);
+        // then
+        String line = outputStream.toString(StandardCharsets.UTF_8).trim();
+        assertTrue(line.startsWith("{") && line.contains("\"transactionId\":\"trx1\""));
+        assertFalse(line.contains("\"id\""));
+    }
+
+    @Test
+    void exportWholeLedgerAndCloseStream() throws Exception {
+        // given
+        long rows = 10_000L;
+        AtomicBoolean closed = new AtomicBoolean();
+        givenAccount();
+        given(transactionRepository.streamLedger(eq(1L), any(), any()))
+                .willReturn(LongStream.rangeClosed(1, rows)
+                        .mapToObj(this::item)
+                        .onClose(() -> closed.set(true)));
+        CountingOutputStream outputStream = new CountingOutputStream();
+        // when
+        StreamingResponseBody body = transactionExportService.exportLedger("1000000012",
+                LocalDate.of(2022, 1, 1), LocalDate.of(2022, 12, 31), ExportFormat.CSV);
+        body.writeTo(outputStream);
+        // then
+        assertEquals(rows + 1, outputStream.lines);
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void exportFailed_InvalidDateRange() {
+        // given
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionExportService.exportLedger("1000000012",
+                        LocalDate.of(2022, 7, 1), LocalDate.of(2022, 6, 1), ExportFormat.CSV));
+        // then
+        assertEquals(ErrorCode.INVALID_REQUEST, exception.getErrorCode());
+    }
+
+    @Test
+    void exportFailed_AccountNotFound() {
+        // given
+        given(accountSnapshotCache.findByAccountNumber(anyString()))
+                .willReturn(Optional.empty());
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionExportService.exportLedger("1000000012",
+                        LocalDate.of(2022, 6, 1), LocalDate.of(2022, 6, 30), ExportFormat.CSV));
+        // then
+        assertEquals(ErrorCode.ACCOUNT_NOT_FOUND, exception.getErrorCode());
+    }
+
+    private void givenAccount() {
+        given(accountSnapshotCache.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(AccountSnapshot.builder()
+                        .id(1L)
+                        .userId(12L)
+                        .accountNumber("1000000012")
+                        .accountStatus(AccountStatus.IN_USE).build()));
+    }
+
+    private TransactionHistoryItem item(long id) {
+        return item(id, LocalDateTime.of(2022, 6, 1, 10, 0));
+    }
+
+    private TransactionHistoryItem item(long id, LocalDateTime transactedAt) {
+        return TransactionHistoryItem.builder()
+                .id(id)
+                .transactionId("trx" + id)
+                .transactionType(TransactionType.USE)
+                .transactionResultType(TransactionResultType.S)
+                .amount(1000L)
+                .balanceSnapshot(9000L)
+                .transactedAt(transactedAt)
+                .build();
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
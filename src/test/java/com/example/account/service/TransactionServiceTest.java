@@ -3,11 +3,20 @@ package com.example.account.service;
 import com.example.account.domain.Account;
 import com.example.account.domain.AccountUser;
 import com.example.account.domain.Transaction;
+import com.example.account.dto.AccountCommand;
 import com.example.account.dto.AccountDto;
+import com.example.account.dto.AccountDetail;
+import com.example.account.dto.AccountSnapshot;
+import com.example.account.dto.CancelBalance;
+import com.example.account.dto.CancelTarget;
+import com.example.account.dto.HistoricalBalance;
 import com.example.account.dto.TransactionDto;
+import com.example.account.dto.TransactionHistory;
+import com.example.account.dto.TransactionHistoryItem;
+import com.example.account.dto.UseBalance;
 import com.example.account.exception.AccountException;
 import com.example.account.repository.AccountRepository;
-import com.example.account.repository.AccountUserRepository;
+import com.example.account.repository.TransactionArchiveRepository;
 import com.example.account.repository.TransactionRepository;
 import com.example.account.type.AccountStatus;
 import com.example.account.type.ErrorCode;
@@ -20,13 +29,17 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
@@ -41,7 +54,13 @@ class TransactionServiceTest {
     @Mock
     private AccountRepository accountRepository;
     @Mock
-    private AccountUserRepository accountUserRepository;
+    private AccountUserCache accountUserCache;
+    @Mock
+    private TransactionIdGenerator transactionIdGenerator;
+    @Mock
+    private AccountSnapshotCache accountSnapshotCache;
+    @Mock
+    private TransactionArchiveRepository transactionArchiveRepository;
     @InjectMocks
     private TransactionService transactionService;
 
@@ -52,12 +71,19 @@ class TransactionServiceTest {
         AccountUser user = AccountUser.builder()
                 .id(12L)
                 .name("Pobi").build();
-        given(accountUserRepository.findById(anyLong()))
+        given(accountUserCache.findById(anyLong()))
                 .willReturn(Optional.of(user));
+        given(accountSnapshotCache.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(AccountSnapshot.builder()
+                        .userId(12L)
+                        .accountStatus(AccountStatus.IN_USE)
+                        .accountNumber("1000000012").build()));
+        given(accountRepository.useBalance(anyString(), anyLong(), any()))
+                .willReturn(1);
         Account account = Account.builder()
                 .accountUser(user)
                 .accountStatus(AccountStatus.IN_USE)
-                .balance(10000L)
+                .balance(9800L)
                 .accountNumber("1000000012").build();
         given(accountRepository.findByAccountNumber(anyString()))
                 .willReturn(Optional.of(account));
@@ -76,8 +102,10 @@ class TransactionServiceTest {
         // when
         TransactionDto transactionDto = transactionService.useBalance(1L, "1000000000", 200L);
         // then
+        verify(accountRepository, times(1)).useBalance(eq("1000000000"), eq(200L), any());
         verify(transactionRepository, times(1)).save(captor.capture());
         assertEquals(200L, captor.getValue().getAmount());
+        assertEquals(9800L, captor.getValue().getBalanceSnapshot());
         assertEquals(TransactionResultType.S, transactionDto.getTransactionResultType());
         assertEquals(9000L, transactionDto.getBalanceSnapshot());
 
@@ -88,7 +116,7 @@ class TransactionServiceTest {
     void useBalance_UserNotFound() {
         // given
 
-        given(accountUserRepository.findById(anyLong()))
+        given(accountUserCache.findById(anyLong()))
                 .willReturn(Optional.empty());
 
         // when
@@ -107,9 +135,9 @@ class TransactionServiceTest {
         AccountUser user = AccountUser.builder()
                 .id(12L)
                 .name("Pobi").build();
-        given(accountUserRepository.findById(anyLong()))
+        given(accountUserCache.findById(anyLong()))
                 .willReturn(Optional.of(user));
-        given(accountRepository.findByAccountNumber(anyString()))
+        given(accountSnapshotCache.findByAccountNumber(anyString()))
                 .willReturn(Optional.empty());
 
         // when
@@ -127,16 +155,13 @@ class TransactionServiceTest {
         AccountUser user = AccountUser.builder()
                 .id(12L)
                 .name("Pobi").build();
-        AccountUser otherUser = AccountUser.builder()
-                .id(13L)
-                .name("Potter").build();
 
-        given(accountUserRepository.findById(anyLong()))
+        given(accountUserCache.findById(anyLong()))
                 .willReturn(Optional.of(user));
-        given(accountRepository.findByAccountNumber(anyString()))
-                .willReturn(Optional.of(Account.builder()
-                        .accountUser(otherUser)
-                        .balance(0L)
+        given(accountSnapshotCache.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(AccountSnapshot.builder()
+                        .userId(13L)
+                        .accountStatus(AccountStatus.IN_USE)
                         .accountNumber("1000000012").build()));
 
         // when
@@ -145,6 +170,7 @@ class TransactionServiceTest {
 
         // then
         assertEquals(ErrorCode.USER_ACCOUNT_UN_MATCH, exception.getErrorCode());
+        verify(accountRepository, times(0)).useBalance(anyString(), anyLong(), any());
     }
 
     @Test
@@ -155,13 +181,12 @@ class TransactionServiceTest {
                 .id(12L)
                 .name("Pobi").build();
 
-        given(accountUserRepository.findById(anyLong()))
+        given(accountUserCache.findById(anyLong()))
                 .willReturn(Optional.of(user));
-        given(accountRepository.findByAccountNumber(anyString()))
-                .willReturn(Optional.of(Account.builder()
-                        .accountUser(user)
+        given(accountSnapshotCache.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(AccountSnapshot.builder()
+                        .userId(12L)
                         .accountStatus(AccountStatus.UNREGISTERED)
-                        .balance(0L)
                         .accountNumber("1000000012").build()));
 
         // when
@@ -179,8 +204,15 @@ class TransactionServiceTest {
         AccountUser user = AccountUser.builder()
                 .id(12L)
                 .name("Pobi").build();
-        given(accountUserRepository.findById(anyLong()))
+        given(accountUserCache.findById(anyLong()))
                 .willReturn(Optional.of(user));
+        given(accountSnapshotCache.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(AccountSnapshot.builder()
+                        .userId(12L)
+                        .accountStatus(AccountStatus.IN_USE)
+                        .accountNumber("1000000012").build()));
+        given(accountRepository.useBalance(anyString(), anyLong(), any()))
+                .willReturn(0);
         Account account = Account.builder()
                 .accountUser(user)
                 .accountStatus(AccountStatus.IN_USE)
@@ -202,36 +234,278 @@ class TransactionServiceTest {
     }
 
     @Test
-    @DisplayName("실패 트랜잭션 저장")
-    void saveFailedUseTransaction() {
+    @DisplayName("조건부 차감 실패 - 캐시 이후 계좌가 해지됨")
+    void useBalance_conditionalUpdateMissed() {
         // given
         AccountUser user = AccountUser.builder()
                 .id(12L)
                 .name("Pobi").build();
+        given(accountUserCache.findById(anyLong()))
+                .willReturn(Optional.of(user));
+        given(accountSnapshotCache.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(AccountSnapshot.builder()
+                        .userId(12L)
+                        .accountStatus(AccountStatus.IN_USE)
+                        .accountNumber("1000000012").build()));
+        given(accountRepository.useBalance(anyString(), anyLong(), any()))
+                .willReturn(0);
         Account account = Account.builder()
                 .accountUser(user)
-                .accountStatus(AccountStatus.IN_USE)
+                .accountStatus(AccountStatus.UNREGISTERED)
                 .balance(10000L)
                 .accountNumber("1000000012").build();
         given(accountRepository.findByAccountNumber(anyString()))
                 .willReturn(Optional.of(account));
-        given(transactionRepository.save(any()))
-                .willReturn(Transaction.builder()
-                        .account(account)
-                        .transactionType(TransactionType.USE)
-                        .transactionResultType(TransactionResultType.S)
-                        .transactionId("transactionId")
-                        .transactedAt(LocalDateTime.now())
+
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionService.useBalance(1L, "1000000012", 1000L));
+
+        // then
+        assertEquals(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED, exception.getErrorCode());
+        verify(accountSnapshotCache, times(1)).evict(12L, "1000000012");
+        verify(transactionRepository, times(0)).save(any());
+    }
+
+    @Test
+    @DisplayName("한 계좌에 대한 일괄 잔액 사용")
+    void useBalanceInBatch() {
+        // given
+        AccountUser user = AccountUser.builder()
+                .id(12L)
+                .name("Pobi").build();
+        given(accountUserCache.findById(anyLong()))
+                .willReturn(Optional.of(user));
+        Account account = Account.builder()
+                .accountUser(user)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(1000L)
+                .accountNumber("1000000012").build();
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+        given(accountRepository.applyBalanceDelta(any(), anyLong(), any(), any()))
+                .willReturn(1);
+        given(transactionRepository.saveAll(anyList()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+
+        // when
+        List<TransactionDto> transactionDtos = transactionService.useBalanceInBatch("1000000012", Arrays.asList(
+                new UseBalance.Request(12L, "1000000012", 600L),
+                new UseBalance.Request(12L, "1000000012", 600L),
+                new UseBalance.Request(12L, "1000000012", 400L)));
+
+        // then
+        verify(accountUserCache, times(1)).findById(12L);
+        verify(transactionRepository, times(1)).saveAll(anyList());
+        assertEquals(TransactionResultType.S, transactionDtos.get(0).getTransactionResultType());
+        assertEquals(400L, transactionDtos.get(0).getBalanceSnapshot());
+        assertEquals(TransactionResultType.F, transactionDtos.get(1).getTransactionResultType());
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, transactionDtos.get(1).getErrorCode());
+        assertEquals(TransactionResultType.S, transactionDtos.get(2).getTransactionResultType());
+        assertEquals(0L, transactionDtos.get(2).getBalanceSnapshot());
+        verify(accountRepository, times(1)).applyBalanceDelta(any(), eq(-1000L), any(), any());
+        assertEquals(1000L, account.getBalance());
+    }
+
+    @Test
+        //@DisplayName("")
+    void useBalanceInBatch_versionConflict() {
+        // given
+        AccountUser user = AccountUser.builder()
+                .id(12L)
+                .name("Pobi").build();
+        given(accountUserCache.findById(anyLong()))
+                .willReturn(Optional.of(user));
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(Account.builder()
+                        .id(1L)
+                        .version(3L)
+                        .accountUser(user)
+                        .accountStatus(AccountStatus.IN_USE)
+                        .balance(1000L)
+                        .accountNumber("1000000012").build()));
+        given(accountRepository.applyBalanceDelta(eq(1L), eq(-600L), eq(3L), any()))
+                .willReturn(0);
+        given(accountRepository.findDetailById(1L))
+                .willReturn(Optional.of(AccountDetail.builder()
+                        .id(1L)
+                        .version(4L)
+                        .accountStatus(AccountStatus.IN_USE)
+                        .balance(1000L).build()));
+        // when
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> transactionService.useBalanceInBatch("1000000012", Collections.singletonList(
+                        new UseBalance.Request(12L, "1000000012", 600L))));
+        // then
+        verify(transactionRepository, times(0)).saveAll(anyList());
+    }
+
+    @Test
+        //@DisplayName("")
+    void useBalanceInBatch_unregisteredWithoutVersionChange() {
+        // given
+        AccountUser user = AccountUser.builder()
+                .id(12L)
+                .name("Pobi").build();
+        given(accountUserCache.findById(anyLong()))
+                .willReturn(Optional.of(user));
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(Account.builder()
+                        .id(1L)
+                        .version(3L)
+                        .accountUser(user)
+                        .accountStatus(AccountStatus.IN_USE)
+                        .balance(1000L)
+                        .accountNumber("1000000012").build()));
+        given(accountRepository.applyBalanceDelta(eq(1L), eq(-600L), eq(3L), any()))
+                .willReturn(0);
+        given(accountRepository.findDetailById(1L))
+                .willReturn(Optional.of(AccountDetail.builder()
+                        .id(1L)
+                        .version(3L)
+                        .accountStatus(AccountStatus.UNREGISTERED)
+                        .balance(1000L).build()));
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionService.useBalanceInBatch("1000000012", Collections.singletonList(
+                        new UseBalance.Request(12L, "1000000012", 600L))));
+        // then
+        // 버전 충돌이 아니므로 재시도 대상이 아니다.
+        assertEquals(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED, exception.getErrorCode());
+        verify(transactionRepository, times(0)).saveAll(anyList());
+    }
+
+    @Test
+        //@DisplayName("")
+    void executeCancelCommandsOnUnregisteredAccount() {
+        // given
+        Account account = Account.builder()
+                .id(1L)
+                .version(3L)
+                .accountStatus(AccountStatus.UNREGISTERED)
+                .balance(0L)
+                .accountNumber("1000000012").build();
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+        given(transactionRepository.saveAll(anyList()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+
+        // when
+        List<TransactionDto> transactionDtos = transactionService.executeCommands("1000000012", Arrays.asList(
+                AccountCommand.cancel(new CancelBalance.Request("originalId1", "1000000012", 1000L)),
+                AccountCommand.cancel(new CancelBalance.Request("originalId2", "1000000012", 500L))));
+
+        // then
+        assertEquals(TransactionResultType.F, transactionDtos.get(0).getTransactionResultType());
+        assertEquals(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED, transactionDtos.get(0).getErrorCode());
+        assertEquals(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED, transactionDtos.get(1).getErrorCode());
+        verify(transactionRepository, times(0)).findCancelTargetByTransactionId(anyString());
+        verify(transactionRepository, times(0)).markCancelled(anyLong(), anyString());
+        verify(accountRepository, times(0)).applyBalanceDelta(any(), anyLong(), any(), any());
+    }
+
+    @Test
+        //@DisplayName("")
+    void executeUseAndCancelCommandsInOneTransaction() {
+        // given
+        AccountUser user = AccountUser.builder()
+                .id(12L)
+                .name("Pobi").build();
+        given(accountUserCache.findById(anyLong()))
+                .willReturn(Optional.of(user));
+        Account account = Account.builder()
+                .id(1L)
+                .accountUser(user)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(1000L)
+                .accountNumber("1000000012").build();
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+        given(transactionRepository.findCancelTargetByTransactionId(anyString()))
+                .willReturn(Optional.of(CancelTarget.builder()
+                        .id(5L)
+                        .accountId(1L)
+                        .accountNumber("1000000012")
                         .amount(1000L)
-                        .balanceSnapshot(9000L)
-                        .build());
+                        .transactedAt(LocalDateTime.now())
+                        .build()));
+        given(transactionRepository.markCancelled(anyLong(), anyString()))
+                .willReturn(1);
+        given(transactionIdGenerator.generate())
+                .willReturn("transactionId");
+        given(accountRepository.applyBalanceDelta(any(), anyLong(), any(), any()))
+                .willReturn(1);
+        given(transactionRepository.saveAll(anyList()))
+                .willAnswer(invocation -> invocation.getArgument(0));
 
-        ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
         // when
-        transactionService.saveFailedUseTransaction("1000000000", 200L);
+        List<TransactionDto> transactionDtos = transactionService.executeCommands("1000000012", Arrays.asList(
+                AccountCommand.use(new UseBalance.Request(12L, "1000000012", 600L)),
+                AccountCommand.cancel(new CancelBalance.Request("originalId", "1000000012", 1000L)),
+                AccountCommand.cancel(new CancelBalance.Request("originalId", "1000000012", 1000L))));
+
+        // then
+        verify(accountRepository, times(1)).findByAccountNumber("1000000012");
+        verify(transactionRepository, times(1)).markCancelled(5L, "transactionId");
+        verify(transactionRepository, times(1)).saveAll(anyList());
+        assertEquals(TransactionResultType.S, transactionDtos.get(0).getTransactionResultType());
+        assertEquals(400L, transactionDtos.get(0).getBalanceSnapshot());
+        assertEquals(TransactionType.CANCEL, transactionDtos.get(1).getTransactionType());
+        assertEquals(TransactionResultType.S, transactionDtos.get(1).getTransactionResultType());
+        assertEquals(1400L, transactionDtos.get(1).getBalanceSnapshot());
+        assertEquals(TransactionResultType.F, transactionDtos.get(2).getTransactionResultType());
+        assertEquals(ErrorCode.TRANSACTION_ALREADY_CANCELLED, transactionDtos.get(2).getErrorCode());
+        assertEquals(1400L, transactionDtos.get(2).getBalanceSnapshot());
+        verify(accountRepository, times(1)).applyBalanceDelta(eq(1L), eq(400L), any(), any());
+    }
+
+    @Test
+    @DisplayName("실패 트랜잭션 저장")
+    void saveFailedTransactions() {
+        // given
+        AccountUser user = AccountUser.builder()
+                .id(12L)
+                .name("Pobi").build();
+        Account account = Account.builder()
+                .accountUser(user)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10000L)
+                .accountNumber("1000000012").build();
+        given(accountRepository.findByAccountNumberIn(anyCollection()))
+                .willReturn(Collections.singletonList(account));
+
+        ArgumentCaptor<List<Transaction>> captor = ArgumentCaptor.forClass(List.class);
+        // when
+        transactionService.saveFailedTransactions(Arrays.asList(
+                TransactionDto.builder()
+                        .transactionType(TransactionType.USE)
+                        .transactionResultType(TransactionResultType.F)
+                        .accountNumber("1000000012")
+                        .amount(200L)
+                        .balanceSnapshot(9000L)
+                        .transactedAt(LocalDateTime.now())
+                        .build(),
+                TransactionDto.builder()
+                        .transactionType(TransactionType.CANCEL)
+                        .transactionResultType(TransactionResultType.F)
+                        .accountNumber("1000000012")
+                        .amount(300L)
+                        .transactedAt(LocalDateTime.now())
+                        .build(),
+                TransactionDto.builder()
+                        .transactionType(TransactionType.USE)
+                        .transactionResultType(TransactionResultType.F)
+                        .accountNumber("9999999999")
+                        .amount(200L)
+                        .transactedAt(LocalDateTime.now())
+                        .build()));
         // then
-        verify(transactionRepository, times(1)).save(captor.capture());
-        assertEquals(TransactionResultType.F, captor.getValue().getTransactionResultType());
+        verify(transactionRepository, times(1)).saveAll(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        assertEquals(TransactionResultType.F, captor.getValue().get(0).getTransactionResultType());
+        assertEquals(9000L, captor.getValue().get(0).getBalanceSnapshot());
+        // 잔액 없이 들어온 기록은 저장할 때 읽은 계좌 잔액으로 채운다.
+        assertEquals(10000L, captor.getValue().get(1).getBalanceSnapshot());
     }
 
     @Test
@@ -242,29 +516,25 @@ class TransactionServiceTest {
                 .id(12L)
                 .name("Pobi").build();
         Account account = Account.builder()
+                .id(1L)
                 .accountUser(user)
                 .accountStatus(AccountStatus.IN_USE)
                 .balance(10000L)
                 .accountNumber("1000000000").build();
-        Transaction transaction = Transaction.builder()
-                .account(account)
-                .transactionType(TransactionType.USE)
-                .transactionResultType(TransactionResultType.S)
-                .transactionId("transactionId")
-                .transactedAt(LocalDateTime.now())
-                .amount(1000L)
-                .balanceSnapshot(9000L)
-                .build();
-        given(transactionRepository.findByTransactionId(anyString()))
-                .willReturn(Optional.of(transaction));
-        given(accountRepository.findByAccountNumber(anyString()))
+        given(transactionRepository.findCancelTargetByTransactionId(anyString()))
+                .willReturn(Optional.of(cancelTarget(1000L, LocalDateTime.now())));
+        given(transactionIdGenerator.generate())
+                .willReturn("cancelTransactionId");
+        given(transactionRepository.markCancelled(anyLong(), anyString()))
+                .willReturn(1);
+        given(accountRepository.findById(anyLong()))
                 .willReturn(Optional.of(account));
         given(transactionRepository.save(any()))
                 .willReturn(Transaction.builder()
                         .account(account)
                         .transactionType(TransactionType.CANCEL)
                         .transactionResultType(TransactionResultType.S)
-                        .transactionId("transactionId")
+                        .transactionId("cancelTransactionId")
                         .transactedAt(LocalDateTime.now())
                         .amount(1000L)
                         .balanceSnapshot(10000L)
@@ -274,8 +544,11 @@ class TransactionServiceTest {
         // when
         TransactionDto transactionDto = transactionService.cancelBalance("transactionId", "1000000000", 1000L);
         // then
+        verify(transactionRepository, times(1)).markCancelled(100L, "cancelTransactionId");
+        verify(accountRepository, times(1)).cancelBalance(eq(1L), eq(1000L), any());
         verify(transactionRepository, times(1)).save(captor.capture());
         assertEquals(1000L, captor.getValue().getAmount());
+        assertEquals("cancelTransactionId", captor.getValue().getTransactionId());
         assertEquals(TransactionResultType.S, transactionDto.getTransactionResultType());
         assertEquals(TransactionType.CANCEL, transactionDto.getTransactionType());
 
@@ -286,14 +559,14 @@ class TransactionServiceTest {
     void cancelBalance_AccountNotFound() {
         // given
 
-        given(transactionRepository.findByTransactionId(anyString()))
-                .willReturn(Optional.of(Transaction.builder().build()));
-        given(accountRepository.findByAccountNumber(anyString()))
+        given(transactionRepository.findCancelTargetByTransactionId(anyString()))
+                .willReturn(Optional.of(cancelTarget(10000L, LocalDateTime.now())));
+        given(accountSnapshotCache.findByAccountNumber(anyString()))
                 .willReturn(Optional.empty());
 
         // when
         AccountException exception = assertThrows(AccountException.class,
-                () -> transactionService.cancelBalance("transactionId", "1000000000", 10000L));
+                () -> transactionService.cancelBalance("transactionId", "1000000001", 10000L));
 
         // then
         assertEquals(ErrorCode.ACCOUNT_NOT_FOUND, exception.getErrorCode());
@@ -304,7 +577,7 @@ class TransactionServiceTest {
     void cancelBalance_TransactionNotFound() {
         // given
 
-        given(transactionRepository.findByTransactionId(anyString()))
+        given(transactionRepository.findCancelTargetByTransactionId(anyString()))
                 .willReturn(Optional.empty());
 
         // when
@@ -315,43 +588,40 @@ class TransactionServiceTest {
         assertEquals(ErrorCode.TRANSACTION_NOT_FOUND, exception.getErrorCode());
     }
 
+    @Test
+    @DisplayName("archive 로 옮겨진 거래 - 잔액 사용 취소 실패")
+    void cancelBalance_ArchivedTransaction() {
+        // given
+        given(transactionRepository.findCancelTargetByTransactionId(anyString()))
+                .willReturn(Optional.empty());
+        given(transactionArchiveRepository.existsByTransactionId("transactionId"))
+                .willReturn(true);
+
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionService.cancelBalance("transactionId", "1000000000", 10000L));
+
+        // then
+        assertEquals(ErrorCode.TOO_OLD_ORDER_TO_CANCEL, exception.getErrorCode());
+        verify(transactionRepository, times(0)).markCancelled(anyLong(), anyString());
+    }
+
     @Test
     @DisplayName("거래와 계좌가 매칭되지 않음")
     void cancelBalance_TransactionAccountUnMatch() {
         // given
-        AccountUser user = AccountUser.builder()
-                .id(12L)
-                .name("Pobi").build();
-        Account account = Account.builder()
-                .id(1L)
-                .accountUser(user)
-                .accountStatus(AccountStatus.IN_USE)
-                .balance(10000L)
-                .accountNumber("1000000000").build();
-        Account account2 = Account.builder()
-                .id(2L)
-                .accountUser(user)
-                .accountStatus(AccountStatus.IN_USE)
-                .balance(10000L)
-                .accountNumber("1000000001").build();
-        Transaction transaction = Transaction.builder()
-                .account(account)
-                .transactionType(TransactionType.USE)
-                .transactionResultType(TransactionResultType.S)
-                .transactionId("transactionId")
-                .transactedAt(LocalDateTime.now())
-                .amount(1000L)
-                .balanceSnapshot(9000L)
-                .build();
-
-        given(transactionRepository.findByTransactionId(anyString()))
-                .willReturn(Optional.of(transaction));
-        given(accountRepository.findByAccountNumber(anyString()))
-                .willReturn(Optional.of(account2));
+        given(transactionRepository.findCancelTargetByTransactionId(anyString()))
+                .willReturn(Optional.of(cancelTarget(1000L, LocalDateTime.now())));
+        given(accountSnapshotCache.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(AccountSnapshot.builder()
+                        .id(2L)
+                        .userId(12L)
+                        .accountNumber("1000000001")
+                        .accountStatus(AccountStatus.IN_USE).build()));
 
         // when
         AccountException exception = assertThrows(AccountException.class,
-                () -> transactionService.cancelBalance("transactionId", "1000000000", 1000L));
+                () -> transactionService.cancelBalance("transactionId", "1000000001", 1000L));
 
         // then
         assertEquals(ErrorCode.TRANSACTION_ACCOUNT_UN_MATCH, exception.getErrorCode());
@@ -361,29 +631,8 @@ class TransactionServiceTest {
     @DisplayName("거래금액과 취소 비용이 다름")
     void cancelBalance_CancelMustFully() {
         // given
-        AccountUser user = AccountUser.builder()
-                .id(12L)
-                .name("Pobi").build();
-        Account account = Account.builder()
-                .id(1L)
-                .accountUser(user)
-                .accountStatus(AccountStatus.IN_USE)
-                .balance(10000L)
-                .accountNumber("1000000000").build();
-        Transaction transaction = Transaction.builder()
-                .account(account)
-                .transactionType(TransactionType.USE)
-                .transactionResultType(TransactionResultType.S)
-                .transactionId("transactionId")
-                .transactedAt(LocalDateTime.now())
-                .amount(100L)
-                .balanceSnapshot(9000L)
-                .build();
-
-        given(transactionRepository.findByTransactionId(anyString()))
-                .willReturn(Optional.of(transaction));
-        given(accountRepository.findByAccountNumber(anyString()))
-                .willReturn(Optional.of(account));
+        given(transactionRepository.findCancelTargetByTransactionId(anyString()))
+                .willReturn(Optional.of(cancelTarget(100L, LocalDateTime.now())));
 
         // when
         AccountException exception = assertThrows(AccountException.class,
@@ -397,29 +646,8 @@ class TransactionServiceTest {
     @DisplayName("거래금액과 취소 비용이 다름")
     void cancelBalance_TooOldTransaction() {
         // given
-        AccountUser user = AccountUser.builder()
-                .id(12L)
-                .name("Pobi").build();
-        Account account = Account.builder()
-                .id(1L)
-                .accountUser(user)
-                .accountStatus(AccountStatus.IN_USE)
-                .balance(10000L)
-                .accountNumber("1000000000").build();
-        Transaction transaction = Transaction.builder()
-                .account(account)
-                .transactionType(TransactionType.USE)
-                .transactionResultType(TransactionResultType.S)
-                .transactionId("transactionId")
-                .transactedAt(LocalDateTime.now().minusYears(1).minusDays(1))
-                .amount(100L)
-                .balanceSnapshot(9000L)
-                .build();
-
-        given(transactionRepository.findByTransactionId(anyString()))
-                .willReturn(Optional.of(transaction));
-        given(accountRepository.findByAccountNumber(anyString()))
-                .willReturn(Optional.of(account));
+        given(transactionRepository.findCancelTargetByTransactionId(anyString()))
+                .willReturn(Optional.of(cancelTarget(100L, LocalDateTime.now().minusYears(1).minusDays(1))));
 
         // when
         AccountException exception = assertThrows(AccountException.class,
@@ -429,6 +657,55 @@ class TransactionServiceTest {
         assertEquals(ErrorCode.TOO_OLD_ORDER_TO_CANCEL, exception.getErrorCode());
     }
 
+    @Test
+    @DisplayName("이미 취소된 거래")
+    void cancelBalance_AlreadyCancelled() {
+        // given
+        CancelTarget target = cancelTarget(1000L, LocalDateTime.now());
+        target.setCancelledByTransactionId("cancelTransactionId");
+        given(transactionRepository.findCancelTargetByTransactionId(anyString()))
+                .willReturn(Optional.of(target));
+
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionService.cancelBalance("transactionId", "1000000000", 1000L));
+
+        // then
+        assertEquals(ErrorCode.TRANSACTION_ALREADY_CANCELLED, exception.getErrorCode());
+        verify(accountRepository, times(0)).cancelBalance(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("동시 취소 - 조건부 갱신 실패")
+    void cancelBalance_ConcurrentCancel() {
+        // given
+        given(transactionRepository.findCancelTargetByTransactionId(anyString()))
+                .willReturn(Optional.of(cancelTarget(1000L, LocalDateTime.now())));
+        given(transactionIdGenerator.generate())
+                .willReturn("cancelTransactionId");
+        given(transactionRepository.markCancelled(anyLong(), anyString()))
+                .willReturn(0);
+
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionService.cancelBalance("transactionId", "1000000000", 1000L));
+
+        // then
+        assertEquals(ErrorCode.TRANSACTION_ALREADY_CANCELLED, exception.getErrorCode());
+        verify(accountRepository, times(0)).cancelBalance(anyLong(), anyLong(), any());
+        verify(transactionRepository, times(0)).save(any());
+    }
+
+    private CancelTarget cancelTarget(Long amount, LocalDateTime transactedAt) {
+        return CancelTarget.builder()
+                .id(100L)
+                .accountId(1L)
+                .accountNumber("1000000000")
+                .amount(amount)
+                .transactedAt(transactedAt)
+                .build();
+    }
+
     @Test
         //@DisplayName("")
     void successQueryTransaction() {
@@ -452,8 +729,8 @@ class TransactionServiceTest {
                 .balanceSnapshot(9000L)
                 .build();
 
-        given(transactionRepository.findByTransactionId(anyString()))
-                .willReturn(Optional.of(transaction));
+        given(transactionRepository.findDtoByTransactionId(anyString()))
+                .willReturn(Optional.of(TransactionDto.fromEntity(transaction)));
         // when
         TransactionDto transactionDto = transactionService.queryTransaction("trxId");
         // then
@@ -463,12 +740,33 @@ class TransactionServiceTest {
         assertEquals("transactionId", transactionDto.getTransactionId());
     }
 
+    @Test
+    @DisplayName("archive 로 옮겨진 거래 조회")
+    void queryArchivedTransaction() {
+        // given
+        given(transactionRepository.findDtoByTransactionId(anyString()))
+                .willReturn(Optional.empty());
+        given(transactionArchiveRepository.findDtoByTransactionId(anyString()))
+                .willReturn(Optional.of(TransactionDto.builder()
+                        .accountNumber("1000000000")
+                        .transactionType(TransactionType.USE)
+                        .transactionResultType(TransactionResultType.S)
+                        .transactionId("transactionId")
+                        .amount(100L)
+                        .build()));
+        // when
+        TransactionDto transactionDto = transactionService.queryTransaction("transactionId");
+        // then
+        assertEquals("transactionId", transactionDto.getTransactionId());
+        assertEquals("1000000000", transactionDto.getAccountNumber());
+    }
+
     @Test
     @DisplayName("해당 거래 없음 - 거래 조회 실패")
     void queryTransaction_TransactionNotFound() {
         // given
 
-        given(transactionRepository.findByTransactionId(anyString()))
+        given(transactionRepository.findDtoByTransactionId(anyString()))
                 .willReturn(Optional.empty());
 
         // when
@@ -478,4 +776,156 @@ class TransactionServiceTest {
         // then
         assertEquals(ErrorCode.TRANSACTION_NOT_FOUND, exception.getErrorCode());
     }
+
+    @Test
+    @DisplayName("거래 내역 조회 - 커서로 다음 페이지 조회")
+    void transactionHistoryKeysetPaging() {
+        // given
+        LocalDateTime now = LocalDateTime.now();
+        given(accountSnapshotCache.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(AccountSnapshot.builder()
+                        .id(1L)
+                        .userId(12L)
+                        .accountNumber("1000000012")
+                        .accountStatus(AccountStatus.IN_USE).build()));
+        given(transactionRepository.findHistoryFirstPage(anyLong(), isNull(), isNull(), any(Pageable.class)))
+                .willReturn(Arrays.asList(
+                        historyItem(3L, now),
+                        historyItem(2L, now.minusSeconds(1)),
+                        historyItem(1L, now.minusSeconds(2))));
+        given(transactionRepository.findHistoryPageAfter(anyLong(), any(), anyLong(), isNull(), isNull(), any(Pageable.class)))
+                .willReturn(Arrays.asList(historyItem(1L, now.minusSeconds(2))));
+        given(transactionArchiveRepository.findLastTransactedAt(1L))
+                .willReturn(Optional.of(now.minusYears(2)));
+        ArgumentCaptor<LocalDateTime> transactedAtCaptor = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<Long> idCaptor = ArgumentCaptor.forClass(Long.class);
+        // when
+        TransactionHistory firstPage = transactionService.getTransactionHistory(
+                "1000000012", null, 2, null, null);
+        TransactionHistory secondPage = transactionService.getTransactionHistory(
+                "1000000012", firstPage.getNextCursor(), 2, null, null);
+        // then
+        verify(transactionRepository).findHistoryPageAfter(anyLong(), transactedAtCaptor.capture(),
+                idCaptor.capture(), isNull(), isNull(), any(Pageable.class));
+        assertEquals(2, firstPage.getTransactions().size());
+        assertEquals(now.minusSeconds(1), transactedAtCaptor.getValue());
+        assertEquals(2L, idCaptor.getValue());
+        assertNull(firstPage.getArchivedUntil());
+        assertEquals(1, secondPage.getTransactions().size());
+        assertNull(secondPage.getNextCursor());
+        assertEquals(now.minusYears(2), secondPage.getArchivedUntil());
+    }
+
+    @Test
+    @DisplayName("잘못된 커서 - 거래 내역 조회 실패")
+    void transactionHistory_InvalidCursor() {
+        // given
+        given(accountSnapshotCache.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(AccountSnapshot.builder()
+                        .id(1L)
+                        .accountNumber("1000000012").build()));
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionService.getTransactionHistory("1000000012", "not-a-cursor", 20, null, null));
+        // then
+        assertEquals(ErrorCode.INVALID_REQUEST, exception.getErrorCode());
+    }
+
+    @Test
+    void balanceAtFromNearestTransaction() {
+        // given
+        givenAccountSnapshot();
+        given(transactionRepository.findBalanceSnapshotsAtOrBefore(anyLong(), any(), any(Pageable.class)))
+                .willReturn(Arrays.asList(7000L));
+        // when
+        HistoricalBalance balance = transactionService.getBalanceAt("1000000012", LocalDateTime.now());
+        // then
+        assertEquals(7000L, balance.getBalance());
+        verify(accountRepository, times(0)).findDetailById(anyLong());
+    }
+
+    @Test
+    void balanceAtBeforeFirstTransaction() {
+        // given
+        LocalDateTime at = LocalDateTime.now().minusDays(1);
+        givenAccountSnapshot();
+        given(transactionRepository.findBalanceSnapshotsAtOrBefore(anyLong(), any(), any(Pageable.class)))
+                .willReturn(Collections.emptyList());
+        given(accountRepository.findDetailById(anyLong()))
+                .willReturn(Optional.of(AccountDetail.builder()
+                        .id(1L)
+                        .balance(8000L)
+                        .registeredAt(at.minusDays(1)).build()));
+        given(transactionRepository.findSucceededAfter(anyLong(), any(), any(Pageable.class)))
+                .willReturn(Arrays.asList(historyItem(1L, at.plusHours(1))));
+        // when
+        HistoricalBalance balance = transactionService.getBalanceAt("1000000012", at);
+        // then
+        // 첫 거래(USE 100, 잔액 9000) 직전 잔액
+        assertEquals(9100L, balance.getBalance());
+    }
+
+    @Test
+    void balanceAtBeforeArchivedTransactions() {
+        // given
+        LocalDateTime at = LocalDateTime.now().minusYears(3);
+        givenAccountSnapshot();
+        given(transactionRepository.findBalanceSnapshotsAtOrBefore(anyLong(), any(), any(Pageable.class)))
+                .willReturn(Collections.emptyList());
+        given(transactionArchiveRepository.findBalanceSnapshotsAtOrBefore(anyLong(), any(), any(Pageable.class)))
+                .willReturn(Collections.emptyList());
+        given(accountRepository.findDetailById(anyLong()))
+                .willReturn(Optional.of(AccountDetail.builder()
+                        .id(1L)
+                        .balance(8000L)
+                        .registeredAt(at.minusDays(1)).build()));
+        given(transactionArchiveRepository.findSucceededAfter(anyLong(), any(), any(Pageable.class)))
+                .willReturn(Arrays.asList(historyItem(1L, at.plusHours(1))));
+        // when
+        HistoricalBalance balance = transactionService.getBalanceAt("1000000012", at);
+        // then
+        // 보관된 첫 거래(USE 100, 잔액 9000) 직전 잔액. 현재 테이블은 보지 않는다.
+        assertEquals(9100L, balance.getBalance());
+        verify(transactionRepository, times(0)).findSucceededAfter(anyLong(), any(), any(Pageable.class));
+    }
+
+    @Test
+    void balanceAt_BeforeRegistration() {
+        // given
+        LocalDateTime at = LocalDateTime.now().minusDays(1);
+        givenAccountSnapshot();
+        given(transactionRepository.findBalanceSnapshotsAtOrBefore(anyLong(), any(), any(Pageable.class)))
+                .willReturn(Collections.emptyList());
+        given(accountRepository.findDetailById(anyLong()))
+                .willReturn(Optional.of(AccountDetail.builder()
+                        .id(1L)
+                        .balance(8000L)
+                        .registeredAt(at.plusDays(1)).build()));
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionService.getBalanceAt("1000000012", at));
+        // then
+        assertEquals(ErrorCode.INVALID_REQUEST, exception.getErrorCode());
+    }
+
+    private void givenAccountSnapshot() {
+        given(accountSnapshotCache.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(AccountSnapshot.builder()
+                        .id(1L)
+                        .userId(12L)
+                        .accountNumber("1000000012")
+                        .accountStatus(AccountStatus.IN_USE).build()));
+    }
+
+    private TransactionHistoryItem historyItem(Long id, LocalDateTime transactedAt) {
+        return TransactionHistoryItem.builder()
+                .id(id)
+                .transactionId("transactionId" + id)
+                .transactionType(TransactionType.USE)
+                .transactionResultType(TransactionResultType.S)
+                .amount(100L)
+                .balanceSnapshot(9000L)
+                .transactedAt(transactedAt)
+                .build();
+    }
 }